@@ -52,6 +52,51 @@ public interface Progressbar extends AutoCloseable {
         };
     }
 
+    /**
+     * Wraps the given Progressbar, so that it can be used by multiple threads,
+     * e.g. by tasks running on a {@code ParallelIOService}.
+     *
+     * @param progressbar the Progressbar to wrap.
+     * @return a Progressbar which synchronizes every call to the given Progressbar.
+     */
+    static Progressbar synchronizedProgressbar(Progressbar progressbar) {
+        if (progressbar.isDummy()) {
+            return progressbar;
+        }
+
+        return new Progressbar() {
+            @Override
+            public synchronized void close() {
+                progressbar.close();
+            }
+
+            @Override
+            public synchronized void stepBy(long n) {
+                progressbar.stepBy(n);
+            }
+
+            @Override
+            public synchronized void stepTo(long n) {
+                progressbar.stepTo(n);
+            }
+
+            @Override
+            public synchronized void step() {
+                progressbar.step();
+            }
+
+            @Override
+            public synchronized void maxHint(long n) {
+                progressbar.maxHint(n);
+            }
+
+            @Override
+            public boolean isDummy() {
+                return false;
+            }
+        };
+    }
+
     @Data
     @RequiredArgsConstructor
     class Configuration {
@@ -0,0 +1,198 @@
+package io.github.headlesshq.headlessmc.api.process;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * A growable FIFO queue of bytes, backing the {@link ReadableOutputStream} and the {@link WritableInputStream}.
+ * Bytes are stored in a primitive array, used as a ring, which doubles in size until it reaches the capacity.
+ * <p>A non-blocking buffer returns -1 from its read methods when it is empty,
+ * and throws an {@link IOException} when a write exceeds its capacity.
+ * A blocking buffer waits for bytes to be written or for space to become available instead,
+ * until it gets closed. After closing, reads drain the remaining bytes and then return -1.
+ */
+class ByteRingBuffer {
+    private static final int INITIAL_SIZE = 1024;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    @Getter
+    private final int capacity;
+    @Getter
+    private final boolean blocking;
+
+    private byte[] buffer = new byte[0];
+    private int head;
+    private int size;
+    private boolean closed;
+
+    /**
+     * Creates a new ByteRingBuffer.
+     *
+     * @param capacity the maximum amount of bytes this buffer can hold.
+     * @param blocking whether reads and writes should wait instead of returning -1 or throwing.
+     */
+    ByteRingBuffer(int capacity, boolean blocking) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, but was " + capacity);
+        }
+
+        this.capacity = Math.min(capacity, MAX_ARRAY_SIZE);
+        this.blocking = blocking;
+    }
+
+    public synchronized void write(int b) throws IOException {
+        awaitSpace(1);
+        buffer[(head + size) % buffer.length] = (byte) b;
+        size++;
+        notifyAll();
+    }
+
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        checkBounds(b, off, len);
+        while (len > 0) {
+            int amount = awaitSpace(len);
+            int tail = (head + size) % buffer.length;
+            int first = Math.min(amount, buffer.length - tail);
+            System.arraycopy(b, off, buffer, tail, first);
+            System.arraycopy(b, off + first, buffer, 0, amount - first);
+            size += amount;
+            off += amount;
+            len -= amount;
+            notifyAll();
+        }
+    }
+
+    public synchronized int read() throws IOException {
+        if (!awaitBytes()) {
+            return -1;
+        }
+
+        int result = buffer[head] & 0xFF;
+        head = (head + 1) % buffer.length;
+        size--;
+        notifyAll();
+        return result;
+    }
+
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        checkBounds(b, off, len);
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!awaitBytes()) {
+            return -1;
+        }
+
+        return drain(b, off, len);
+    }
+
+    /**
+     * Reads up to len bytes without blocking.
+     *
+     * @return the amount of bytes read, 0 if the buffer is empty.
+     */
+    public synchronized int readAvailable(byte[] b, int off, int len) {
+        checkBounds(b, off, len);
+        return size == 0 ? 0 : drain(b, off, len);
+    }
+
+    public synchronized int available() {
+        return size;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    private int drain(byte[] b, int off, int len) {
+        int amount = Math.min(len, size);
+        int first = Math.min(amount, buffer.length - head);
+        System.arraycopy(buffer, head, b, off, first);
+        System.arraycopy(buffer, 0, b, off + first, amount - first);
+        head = (head + amount) % buffer.length;
+        size -= amount;
+        notifyAll();
+        return amount;
+    }
+
+    private boolean awaitBytes() throws IOException {
+        while (size == 0) {
+            if (!blocking || closed) {
+                return false;
+            }
+
+            await();
+        }
+
+        return true;
+    }
+
+    /**
+     * Waits until at least one byte can be written and makes room for as many of the requested bytes as possible.
+     *
+     * @return the amount of bytes that can be written now, at least 1.
+     */
+    private int awaitSpace(int requested) throws IOException {
+        while (true) {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+
+            if (size < capacity) {
+                break;
+            }
+
+            if (!blocking) {
+                throw new IOException("Buffer is full, capacity: " + capacity);
+            }
+
+            await();
+        }
+
+        int amount = (int) Math.min(requested, (long) capacity - size);
+        if (!blocking && amount < requested) {
+            throw new IOException("Buffer is full, capacity: " + capacity);
+        }
+
+        grow(size + amount);
+        return amount;
+    }
+
+    private void grow(int required) {
+        if (required <= buffer.length) {
+            return;
+        }
+
+        long newLength = Math.max(INITIAL_SIZE, buffer.length);
+        while (newLength < required) {
+            newLength <<= 1;
+        }
+
+        byte[] newBuffer = new byte[(int) Math.min(newLength, capacity)];
+        int first = Math.min(size, buffer.length - head);
+        System.arraycopy(buffer, head, newBuffer, 0, first);
+        System.arraycopy(buffer, 0, newBuffer, first, size - first);
+        buffer = newBuffer;
+        head = 0;
+    }
+
+    private void await() throws IOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    static void checkBounds(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", length: " + b.length);
+        }
+    }
+
+}
@@ -5,27 +5,67 @@ import lombok.Getter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayDeque;
-import java.util.Deque;
 
+/**
+ * An OutputStream whose written bytes can be read from its {@link #getInputStream()}.
+ * By default reads return -1 as soon as all written bytes have been read.
+ * In blocking mode reads wait for more bytes until this stream is closed,
+ * and writes wait while the buffer holds capacity bytes.
+ */
 public class ReadableOutputStream extends OutputStream {
-    private final Deque<Integer> writes = new ArrayDeque<>();
+    private final ByteRingBuffer buffer;
 
     @Getter
     public InputStream inputStream = new InputStream() {
         @Override
-        public int read() {
-            if (writes.isEmpty()) {
-                return -1;
-            }
+        public int read() throws IOException {
+            return buffer.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return buffer.read(b, off, len);
+        }
 
-            return writes.removeFirst();
+        @Override
+        public int available() {
+            return buffer.available();
         }
     };
 
+    /**
+     * Creates an unbounded, non-blocking ReadableOutputStream.
+     */
+    public ReadableOutputStream() {
+        this(Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Creates a new ReadableOutputStream.
+     *
+     * @param capacity the maximum amount of unread bytes.
+     * @param blocking whether reads should wait for bytes and writes for space.
+     */
+    public ReadableOutputStream(int capacity, boolean blocking) {
+        this.buffer = new ByteRingBuffer(capacity, blocking);
+    }
+
     @Override
     public void write(int b) throws IOException {
-        writes.addLast(b);
+        buffer.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        buffer.write(b, off, len);
+    }
+
+    /**
+     * Signals the end of the stream, the remaining bytes can still be read.
+     */
+    @Override
+    public void close() {
+        buffer.close();
     }
 
 }
@@ -6,17 +6,31 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.util.ArrayDeque;
-import java.util.Deque;
 
+/**
+ * An InputStream that reads the bytes written to its {@link #getOutputStream()}.
+ * By default reads return -1 as soon as all written bytes have been read.
+ * In blocking mode reads wait for more bytes until the OutputStream is closed,
+ * and writes wait while the buffer holds capacity bytes.
+ */
 public class WritableInputStream extends InputStream {
-    private final Deque<Integer> writes = new ArrayDeque<>();
+    private final ByteRingBuffer buffer;
 
     @Getter
     private final OutputStream outputStream = new OutputStream() {
         @Override
-        public void write(int b) {
-            writes.addLast(b);
+        public void write(int b) throws IOException {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            buffer.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            buffer.close();
         }
     };
 
@@ -28,13 +42,48 @@ public class WritableInputStream extends InputStream {
         }
     };
 
+    /**
+     * Creates an unbounded, non-blocking WritableInputStream.
+     */
+    public WritableInputStream() {
+        this(Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Creates a new WritableInputStream.
+     *
+     * @param capacity the maximum amount of unread bytes.
+     * @param blocking whether reads should wait for bytes and writes for space.
+     */
+    public WritableInputStream(int capacity, boolean blocking) {
+        this.buffer = new ByteRingBuffer(capacity, blocking);
+    }
+
     @Override
     public int read() throws IOException {
-        if (writes.isEmpty()) {
+        return buffer.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ByteRingBuffer.checkBounds(b, off, len);
+        if (len == 0) {
+            return 0;
+        }
+
+        // go through read() for the first byte, so that subclasses can supply bytes lazily
+        int first = read();
+        if (first == -1) {
             return -1;
         }
 
-        return writes.removeFirst();
+        b[off] = (byte) first;
+        return 1 + buffer.readAvailable(b, off + 1, len - 1);
+    }
+
+    @Override
+    public int available() {
+        return buffer.available();
     }
 
 }
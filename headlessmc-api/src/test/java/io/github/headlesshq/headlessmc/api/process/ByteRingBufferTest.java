@@ -0,0 +1,87 @@
+package io.github.headlesshq.headlessmc.api.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteRingBufferTest {
+    @Test
+    public void testWrapAroundAndGrow() throws IOException {
+        ByteRingBuffer buffer = new ByteRingBuffer(Integer.MAX_VALUE, false);
+        byte[] data = new byte[3000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        byte[] read = new byte[data.length];
+        for (int round = 0; round < 10; round++) {
+            // write more than we read, so that the head moves around the ring while it grows
+            buffer.write(data, 0, 700);
+            assertEquals(500, buffer.read(read, 0, 500));
+            for (int i = 0; i < 500; i++) {
+                assertEquals(data[(round * 500 + i) % 700], read[i]);
+            }
+        }
+
+        assertEquals(2000, buffer.available());
+        assertEquals(2000, buffer.read(read, 0, read.length));
+        assertEquals(-1, buffer.read(read, 0, read.length));
+        assertEquals(-1, buffer.read());
+    }
+
+    @Test
+    public void testCapacity() throws IOException {
+        ByteRingBuffer buffer = new ByteRingBuffer(4, false);
+        buffer.write(new byte[]{1, 2, 3}, 0, 3);
+        assertThrows(IOException.class, () -> buffer.write(new byte[]{4, 5}, 0, 2));
+        buffer.write(4);
+        assertThrows(IOException.class, () -> buffer.write(5));
+        assertEquals(1, buffer.read());
+        buffer.write(5);
+        byte[] read = new byte[4];
+        assertEquals(4, buffer.read(read, 0, 4));
+        assertArrayEquals(new byte[]{2, 3, 4, 5}, read);
+    }
+
+    @Test
+    public void testBlocking() throws Exception {
+        ByteRingBuffer buffer = new ByteRingBuffer(16, true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                byte[] data = new byte[1000];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = (byte) i;
+                }
+
+                // larger than the capacity, has to wait for the reader
+                buffer.write(data, 0, data.length);
+                buffer.close();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+
+        writer.start();
+        byte[] read = new byte[64];
+        int total = 0;
+        int n;
+        while ((n = buffer.read(read, 0, read.length)) != -1) {
+            assertTrue(n <= 16);
+            for (int i = 0; i < n; i++) {
+                assertEquals((byte) (total + i), read[i]);
+            }
+
+            total += n;
+        }
+
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(1000, total);
+        assertThrows(IOException.class, () -> buffer.write(1));
+    }
+
+}
@@ -0,0 +1,82 @@
+package io.github.headlesshq.headlessmc.api.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Compares the throughput of the {@link ReadableOutputStream} with the previous implementation,
+ * which stored every byte as a boxed Integer in an {@link ArrayDeque},
+ * by piping log lines through a PrintStream and draining them again.
+ * Not a test, run the main method manually: {@code ReadableOutputStreamBenchmark [megabytes] [iterations]}.
+ */
+public class ReadableOutputStreamBenchmark {
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String line = "[12:34:56] [Server thread/INFO]: Preparing spawn area: 42%";
+        long lines = megabytes * 1_000_000L / (line.length() + 1);
+        for (int i = -1; i < iterations; i++) { // first iteration is warmup
+            for (boolean ring : new boolean[]{false, true}) {
+                DequeOutputStream deque = new DequeOutputStream();
+                ReadableOutputStream readable = new ReadableOutputStream();
+                OutputStream out = ring ? readable : deque;
+                InputStream in = ring ? readable.getInputStream() : deque.inputStream;
+                PrintStream printStream = new PrintStream(out, true);
+                byte[] buffer = new byte[8192];
+                long bytes = 0;
+                long nanos = System.nanoTime();
+                for (long l = 0; l < lines; l++) {
+                    printStream.println(line);
+                    if (l % 1_000 == 0) {
+                        bytes += drain(in, buffer);
+                    }
+                }
+
+                bytes += drain(in, buffer);
+                nanos = System.nanoTime() - nanos;
+                if (i >= 0) {
+                    System.out.printf("%-14s %8.1fms, %7.1f mb/s%n", ring ? "ring buffer:" : "boxed deque:",
+                                      nanos / 1_000_000.0, bytes / 1_000_000.0 / (nanos / 1_000_000_000.0));
+                }
+            }
+        }
+    }
+
+    private static long drain(InputStream in, byte[] buffer) throws IOException {
+        long bytes = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes += read;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * The implementation the ReadableOutputStream used to have.
+     */
+    private static final class DequeOutputStream extends OutputStream {
+        private final Deque<Integer> writes = new ArrayDeque<>();
+
+        private final InputStream inputStream = new InputStream() {
+            @Override
+            public int read() {
+                if (writes.isEmpty()) {
+                    return -1;
+                }
+
+                return writes.removeFirst();
+            }
+        };
+
+        @Override
+        public void write(int b) {
+            writes.addLast(b);
+        }
+    }
+
+}
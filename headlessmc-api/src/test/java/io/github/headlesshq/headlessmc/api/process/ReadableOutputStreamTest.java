@@ -4,6 +4,7 @@ import io.github.headlesshq.headlessmc.api.process.ReadableOutputStream;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -57,4 +58,17 @@ public class ReadableOutputStreamTest {
         assertEquals(-1, readableOutputStream.getInputStream().read());
     }
 
+    @Test
+    public void testBulkWriteAndRead() throws IOException {
+        ReadableOutputStream readableOutputStream = new ReadableOutputStream();
+        byte[] data = "Hello World".getBytes(StandardCharsets.UTF_8);
+        readableOutputStream.write(data, 6, 5);
+        assertEquals(5, readableOutputStream.getInputStream().available());
+
+        byte[] read = new byte[10];
+        assertEquals(5, readableOutputStream.getInputStream().read(read, 2, 8));
+        assertEquals("World", new String(read, 2, 5, StandardCharsets.UTF_8));
+        assertEquals(-1, readableOutputStream.getInputStream().read(read, 0, read.length));
+    }
+
 }
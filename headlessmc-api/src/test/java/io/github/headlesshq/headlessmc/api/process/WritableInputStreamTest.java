@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -70,4 +71,15 @@ public class WritableInputStreamTest {
         assertEquals("line", reader.readLine());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testBulkRead() throws IOException {
+        WritableInputStream writableInputStream = new WritableInputStream();
+        writableInputStream.getPrintStream().print("test");
+
+        byte[] read = new byte[8];
+        assertEquals(4, writableInputStream.read(read, 0, read.length));
+        assertEquals("test", new String(read, 0, 4, StandardCharsets.UTF_8));
+        assertEquals(-1, writableInputStream.read(read, 0, read.length));
+    }
+
+}
@@ -3,6 +3,7 @@ package io.github.headlesshq.headlessmc.graalvm;
 import io.github.headlesshq.headlessmc.api.command.line.ProgressBarProvider;
 import io.github.headlesshq.headlessmc.api.command.line.Progressbar;
 import io.github.headlesshq.headlessmc.java.download.DownloadClient;
+import io.github.headlesshq.headlessmc.java.download.ProgressInputStream;
 
 import java.io.IOError;
 import java.io.IOException;
@@ -62,4 +63,25 @@ public class Java11DownloadClient implements DownloadClient {
         }
     }
 
+    @Override
+    public void streamBigFile(String url, StreamConsumer consumer, String progressBarTitle, ProgressBarProvider progressBarProvider) throws IOException {
+        try (HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.ALWAYS).build()) {
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (!(response.statusCode() >= 200 && response.statusCode() < 400)) {
+                response.body().close();
+                throw new IOException("HTTP error code: " + response.statusCode());
+            }
+
+            long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            try (InputStream is = response.body();
+                 Progressbar progressbar = progressBarProvider.displayProgressBar(
+                         new Progressbar.Configuration(progressBarTitle, contentLength, new Progressbar.Configuration.Unit("mb", 1_000_000)))) {
+                consumer.accept(new ProgressInputStream(is, progressbar));
+            }
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
 }
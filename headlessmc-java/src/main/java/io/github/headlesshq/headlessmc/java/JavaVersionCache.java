@@ -0,0 +1,162 @@
+package io.github.headlesshq.headlessmc.java;
+
+import lombok.CustomLog;
+import lombok.Data;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the major version of Java executables, so that {@code java -version} does not have to be run again
+ * for every Java installation on every start. An entry is only used while the executable
+ * still has the same last modified time and size as when its version was read.
+ * <p>The cache is stored in a simple text file, one executable per line.
+ */
+@CustomLog
+public class JavaVersionCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    @Getter
+    private final Path file;
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    public JavaVersionCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @param executable the Java executable.
+     * @return the cached major version of the executable or {@code null} if it is unknown or the executable changed.
+     */
+    public @Nullable Integer get(Path executable) {
+        load();
+        Entry entry = entries.get(key(executable));
+        if (entry == null) {
+            return null;
+        }
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(executable, BasicFileAttributes.class);
+            if (attributes.lastModifiedTime().toMillis() == entry.getLastModified() && attributes.size() == entry.getSize()) {
+                return entry.getVersion();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read attributes of " + executable + ": " + e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Remembers the major version of the given executable.
+     *
+     * @param executable the Java executable.
+     * @param version    the major version of the executable.
+     */
+    public void put(Path executable, int version) {
+        load();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(executable, BasicFileAttributes.class);
+            entries.put(key(executable), new Entry(attributes.lastModifiedTime().toMillis(), attributes.size(), version));
+            dirty = true;
+        } catch (IOException e) {
+            log.debug("Failed to read attributes of " + executable + ": " + e);
+        }
+    }
+
+    /**
+     * Writes the cache to its file, if it has been changed since it was loaded.
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+
+        dirty = false;
+        Path temp = null;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".part");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    Entry value = entry.getValue();
+                    writer.write(value.getVersion() + "\t" + value.getLastModified() + "\t" + value.getSize() + "\t" + entry.getKey());
+                    writer.newLine();
+                }
+            }
+
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write Java version cache " + file, e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.debug("Failed to delete " + temp + ": " + e);
+                }
+            }
+        }
+    }
+
+    private void load() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    read();
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    private void read() {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] split = line.split("\t", 4);
+                if (split.length != 4) {
+                    continue;
+                }
+
+                try {
+                    entries.putIfAbsent(split[3], new Entry(Long.parseLong(split[1]), Long.parseLong(split[2]), Integer.parseInt(split[0])));
+                } catch (NumberFormatException e) {
+                    log.debug("Invalid line in Java version cache " + file + ": " + line);
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+            // nothing cached yet
+        } catch (IOException e) {
+            log.warn("Failed to read Java version cache " + file, e);
+        }
+    }
+
+    private static String key(Path executable) {
+        return executable.toAbsolutePath().normalize().toString();
+    }
+
+    @Data
+    private static final class Entry {
+        private final long lastModified;
+        private final long size;
+        private final int version;
+    }
+
+}
@@ -10,6 +10,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 @CustomLog
@@ -19,17 +25,23 @@ public class JavaVersionFinder {
         checkDirectory(javaScanner, Paths.get(HeadlessMcApi.NAME).resolve("java"), os);
         if (os.getType() == OS.Type.WINDOWS) {
             Iterable<Path> rootDirectories = FileSystems.getDefault().getRootDirectories();
+            List<String> executables = new ArrayList<>();
             for (Path rootPath : rootDirectories) {
-                result.addAll(checkDirectory(javaScanner, rootPath.resolve("Program Files").resolve("Java"), os));
+                executables.addAll(findExecutables(rootPath.resolve("Program Files").resolve("Java"), os, Collections.emptyList()));
             }
 
+            result.addAll(scan(javaScanner, executables));
+
             // search Users/<user>/.jdks?
         } else if (os.getType() == OS.Type.LINUX) {
             Iterable<Path> rootDirectories = FileSystems.getDefault().getRootDirectories();
+            List<String> executables = new ArrayList<>();
             for (Path rootPath : rootDirectories) {
-                result.addAll(checkDirectory(javaScanner, rootPath.resolve("usr").resolve("lib").resolve("jvm"), os));
-                result.addAll(checkDirectory(javaScanner, rootPath.resolve("usr").resolve("local"), os));
+                executables.addAll(findExecutables(rootPath.resolve("usr").resolve("lib").resolve("jvm"), os, Collections.emptyList()));
+                executables.addAll(findExecutables(rootPath.resolve("usr").resolve("local"), os, Collections.emptyList()));
             }
+
+            result.addAll(scan(javaScanner, executables));
         }
 
         result.sort(Comparator.naturalOrder());
@@ -41,9 +53,21 @@ public class JavaVersionFinder {
     }
 
     public List<Java> checkDirectory(JavaScanner javaScanner, Path javaDirPath, OS os, Collection<Java> alreadyIn) {
+        return scan(javaScanner, findExecutables(javaDirPath, os, alreadyIn));
+    }
+
+    /**
+     * Lists the Java executables of the Java installations in the given directory.
+     *
+     * @param javaDirPath the directory containing Java installations.
+     * @param os          the operating system.
+     * @param alreadyIn   Java versions which are already known and should not be returned again.
+     * @return the paths to the Java executables, without the .exe extension.
+     */
+    public List<String> findExecutables(Path javaDirPath, OS os, Collection<Java> alreadyIn) {
         if (Files.exists(javaDirPath) && Files.isDirectory(javaDirPath)) {
             try (Stream<Path> stream = Files.list(javaDirPath)) {
-                List<Java> result = new ArrayList<>();
+                List<String> result = new ArrayList<>();
                 stream.forEach(javaVersion -> {
                     Path executable = javaVersion.resolve("bin").resolve(os.getType() == OS.Type.WINDOWS ? "java.exe" : "java");
                     if (Files.exists(executable) && !Files.isDirectory(executable)) {
@@ -54,10 +78,7 @@ public class JavaVersionFinder {
 
                         String replaced = path.replace("\\", "/");
                         if (!alreadyIn.stream().anyMatch(java -> replaced.equals(java.getExecutable()))) {
-                            Java java = javaScanner.scanJava(log, path);
-                            if (java != null) {
-                                result.add(java);
-                            }
+                            result.add(path);
                         }
                     }
                 });
@@ -71,4 +92,56 @@ public class JavaVersionFinder {
         return Collections.emptyList();
     }
 
+    /**
+     * Scans the given Java executables concurrently, every scan might have to start a Java process.
+     *
+     * @param javaScanner the scanner to use.
+     * @param executables the paths to the Java executables.
+     * @return the Java versions that could be scanned, in the order of the given executables.
+     */
+    public List<Java> scan(JavaScanner javaScanner, List<String> executables) {
+        List<Java> result = new ArrayList<>(executables.size());
+        if (executables.size() <= 1) {
+            for (String executable : executables) {
+                Java java = javaScanner.scanJava(log, executable);
+                if (java != null) {
+                    result.add(java);
+                }
+            }
+
+            return result;
+        }
+
+        List<Callable<Java>> tasks = new ArrayList<>(executables.size());
+        for (String executable : executables) {
+            tasks.add(() -> javaScanner.scanJava(log, executable));
+        }
+
+        AtomicInteger threadId = new AtomicInteger();
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, executables.size()), runnable -> {
+            Thread thread = new Thread(runnable, "HeadlessMc-Java-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (Future<Java> future : executor.invokeAll(tasks)) {
+                Java java = future.get();
+                if (java != null) {
+                    result.add(java);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return result;
+    }
+
 }
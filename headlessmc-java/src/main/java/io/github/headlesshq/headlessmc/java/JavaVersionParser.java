@@ -1,11 +1,16 @@
 package io.github.headlesshq.headlessmc.java;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermission;
@@ -17,14 +22,100 @@ import java.util.regex.Pattern;
 @RequiredArgsConstructor
 public class JavaVersionParser {
     private static final Pattern PATTERN = Pattern.compile("version \"(\\d+)[.-]?(\\d*)");
+    private static final Pattern RELEASE_PATTERN = Pattern.compile("^JAVA_VERSION=\"?([^\"\\s]+)", Pattern.MULTILINE);
 
     private final boolean addFilePermissions;
+    @Getter
+    @Setter
+    private @Nullable JavaVersionCache cache;
 
     public JavaVersionParser() {
         this(false);
     }
 
+    /**
+     * Finds the major version of the given Java executable.
+     * Looks it up in the {@link #getCache() cache} first, then reads the {@code release} file of the Java installation,
+     * and only runs {@code java -version} if neither knows the version.
+     *
+     * @param path the path to the Java executable.
+     * @return the major version of the executable.
+     * @throws IOException if the version could not be determined.
+     */
+    public int readVersion(String path) throws IOException {
+        addFilePermissions(path);
+        Path executable;
+        try {
+            executable = Paths.get(path);
+            if (!Files.exists(executable) && Files.exists(Paths.get(path + ".exe"))) {
+                executable = Paths.get(path + ".exe");
+            }
+        } catch (InvalidPathException e) {
+            return runVersionCommand(path);
+        }
+
+        JavaVersionCache cache = this.cache;
+        if (cache != null) {
+            Integer version = cache.get(executable);
+            if (version != null) {
+                return version;
+            }
+        }
+
+        Integer version = null;
+        Path bin = executable.toAbsolutePath().getParent();
+        if (bin != null && bin.getParent() != null && Files.exists(executable)) {
+            version = parseReleaseFile(bin.getParent());
+        }
+
+        if (version == null) {
+            version = runVersionCommand(path);
+        }
+
+        if (cache != null) {
+            cache.put(executable, version);
+        }
+
+        return version;
+    }
+
+    /**
+     * Reads the major version of a Java installation from its {@code release} file.
+     *
+     * @param javaHome the home directory of the Java installation.
+     * @return the major version or {@code null} if there is no release file or it does not contain a version.
+     */
+    public @Nullable Integer parseReleaseFile(Path javaHome) {
+        try {
+            return parseRelease(new String(Files.readAllBytes(javaHome.resolve("release")), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param release the contents of a {@code release} file.
+     * @return the major version from the {@code JAVA_VERSION} line or {@code null} if there is none.
+     */
+    public @Nullable Integer parseRelease(String release) {
+        Matcher matcher = RELEASE_PATTERN.matcher(release);
+        if (!matcher.find()) {
+            return null;
+        }
+
+        try {
+            return Integer.parseInt(getMajorVersion(matcher.group(1)).split("[^\\d]", 2)[0]);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
     public int parseVersionCommand(String path) throws IOException {
+        addFilePermissions(path);
+        return runVersionCommand(path);
+    }
+
+    private void addFilePermissions(String path) throws IOException {
         if (addFilePermissions) {
             Path executable = Paths.get(path);
             // we should probably take the permissions of the file and just add execute instead
@@ -45,7 +136,9 @@ public class JavaVersionParser {
                 Files.setPosixFilePermissions(jspawnHelper, executePermissions);
             }
         }
+    }
 
+    private int runVersionCommand(String path) throws IOException {
         Process prcs = new ProcessBuilder().command(path, "-version").start();
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(prcs.getErrorStream()))) {
             StringBuilder builder = new StringBuilder();
@@ -6,14 +6,26 @@ import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 @CustomLog
 public class ArchiveExtractor {
+    private static final int MAX_THREADS = 8;
+
     public void extract(Path path, boolean toParentDir) throws IOException {
         String fileName = path.getFileName().toString();
         if (fileName.endsWith(".zip")) {
@@ -35,49 +47,130 @@ public class ArchiveExtractor {
         }
     }
 
+    /**
+     * Extracts a .tar.gz archive while it is being read from the given stream, e.g. while it is being downloaded.
+     * The stream is read until its end, but not closed.
+     *
+     * @param tarGz the stream of the .tar.gz archive.
+     * @param to    the directory to extract the archive into.
+     * @throws IOException if reading or extracting the archive fails.
+     */
+    public void untar(InputStream tarGz, Path to) throws IOException {
+        log.debug("Extracting tar stream to " + to.toAbsolutePath());
+        GzipCompressorInputStream gzipIn = new GzipCompressorInputStream(tarGz);
+        TarArchiveInputStream tarIn = new TarArchiveInputStream(gzipIn);
+        TarArchiveEntry entry;
+        while ((entry = tarIn.getNextEntry()) != null) {
+            Path entryPath = resolve(to, entry.getName());
+            if (entry.isDirectory()) {
+                if (!Files.exists(entryPath)) {
+                    Files.createDirectories(entryPath);
+                }
+            } else {
+                Files.createDirectories(entryPath.getParent());
+                Files.copy(tarIn, entryPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        // read the padding after the last entry, so that the whole stream has been consumed
+        byte[] buffer = new byte[8192];
+        //noinspection StatementWithEmptyBody
+        while (gzipIn.read(buffer) != -1) {
+            // skip
+        }
+    }
+
     private void unzip(Path from, Path to) throws IOException {
         log.debug("Extracting zip " + from.toAbsolutePath() + " to " + to.toAbsolutePath());
-        try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(from))) {
-            ZipEntry entry;
-            while ((entry = zipInputStream.getNextEntry()) != null) {
-                Path entryPath = to.resolve(entry.getName());
+        try (ZipFile zipFile = new ZipFile(from.toFile())) {
+            // the central directory lists all entries up front, so the files can be extracted in parallel
+            List<ZipEntry> files = new ArrayList<>(zipFile.size());
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                Path entryPath = resolve(to, entry.getName());
                 if (entry.isDirectory()) {
-                    if (!Files.exists(entryPath)) {
-                        Files.createDirectories(entryPath);
-                    }
+                    Files.createDirectories(entryPath);
                 } else {
                     Files.createDirectories(entryPath.getParent());
-                    try {
-                        Files.copy(zipInputStream, entryPath, StandardCopyOption.REPLACE_EXISTING);
-                    } catch (IOException ioe) {
-                        zipInputStream.closeEntry();
-                        throw ioe;
-                    }
+                    files.add(entry);
                 }
+            }
+
+            List<Callable<Void>> tasks = new ArrayList<>(files.size());
+            for (ZipEntry entry : files) {
+                tasks.add(() -> {
+                    try (InputStream is = zipFile.getInputStream(entry)) {
+                        Files.copy(is, resolve(to, entry.getName()), StandardCopyOption.REPLACE_EXISTING);
+                    }
 
-                zipInputStream.closeEntry();
+                    return null;
+                });
             }
+
+            run(tasks);
         }
     }
 
     private void untar(Path from, Path to) throws IOException {
         log.debug("Extracting tar " + from.toAbsolutePath() + " to " + to.toAbsolutePath());
-        try (GzipCompressorInputStream gzipIn = new GzipCompressorInputStream(Files.newInputStream(from));
-             TarArchiveInputStream tarIn = new TarArchiveInputStream(gzipIn)) {
-            TarArchiveEntry entry;
+        try (InputStream is = Files.newInputStream(from)) {
+            untar(is, to);
+        }
+    }
 
-            while ((entry = tarIn.getNextEntry()) != null) {
-                Path entryPath = to.resolve(entry.getName());
-                if (entry.isDirectory()) {
-                    if (!Files.exists(entryPath)) {
-                        Files.createDirectories(entryPath);
-                    }
-                } else {
-                    Files.createDirectories(entryPath.getParent());
-                    Files.copy(tarIn, entryPath, StandardCopyOption.REPLACE_EXISTING);
-                }
+    private void run(List<Callable<Void>> tasks) throws IOException {
+        int threads = Math.min(tasks.size(), Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        if (threads <= 1) {
+            for (Callable<Void> task : tasks) {
+                call(task);
+            }
+
+            return;
+        }
+
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "HeadlessMc-Extract-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void call(Callable<Void> task) throws IOException {
+        try {
+            task.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
         }
     }
 
+    private static Path resolve(Path to, String name) throws IOException {
+        Path result = to.resolve(name).normalize();
+        if (!result.startsWith(to.normalize())) {
+            throw new IOException("Archive entry " + name + " is outside of " + to);
+        }
+
+        return result;
+    }
+
 }
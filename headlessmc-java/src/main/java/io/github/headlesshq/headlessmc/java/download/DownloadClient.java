@@ -3,6 +3,8 @@ package io.github.headlesshq.headlessmc.java.download;
 import io.github.headlesshq.headlessmc.api.command.line.ProgressBarProvider;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 public interface DownloadClient {
@@ -10,4 +12,32 @@ public interface DownloadClient {
 
     void downloadBigFile(String url, Path destination, String progressBarTitle, ProgressBarProvider progressBarProvider) throws IOException;
 
+    /**
+     * Downloads a big file and passes its contents to the given consumer while they are being downloaded,
+     * so that e.g. an archive can be extracted without waiting for the download to finish first.
+     * The default implementation downloads into a temporary file and reads that afterwards.
+     *
+     * @param url                 the url to download.
+     * @param consumer            consumes the downloaded contents.
+     * @param progressBarTitle    the title of the progress bar for the download.
+     * @param progressBarProvider provides the progress bar for the download.
+     * @throws IOException if the download or the consumer fails.
+     */
+    default void streamBigFile(String url, StreamConsumer consumer, String progressBarTitle, ProgressBarProvider progressBarProvider) throws IOException {
+        Path temp = Files.createTempFile("headlessmc-download", ".part");
+        try {
+            downloadBigFile(url, temp, progressBarTitle, progressBarProvider);
+            try (InputStream is = Files.newInputStream(temp)) {
+                consumer.accept(is);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @FunctionalInterface
+    interface StreamConsumer {
+        void accept(InputStream is) throws IOException;
+    }
+
 }
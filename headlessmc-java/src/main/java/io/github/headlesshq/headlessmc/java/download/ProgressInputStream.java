@@ -0,0 +1,50 @@
+package io.github.headlesshq.headlessmc.java.download;
+
+import io.github.headlesshq.headlessmc.api.command.line.Progressbar;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An InputStream that steps a {@link Progressbar} by every byte read from it.
+ */
+public class ProgressInputStream extends FilterInputStream {
+    private final Progressbar progressbar;
+
+    public ProgressInputStream(InputStream in, Progressbar progressbar) {
+        super(in);
+        this.progressbar = progressbar;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int result = super.read();
+        if (result != -1) {
+            progressbar.stepBy(1);
+        }
+
+        return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int result = super.read(b, off, len);
+        if (result > 0) {
+            progressbar.stepBy(result);
+        }
+
+        return result;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long result = super.skip(n);
+        if (result > 0) {
+            progressbar.stepBy(result);
+        }
+
+        return result;
+    }
+
+}
@@ -13,6 +13,9 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
 
 @CustomLog
 public class TemurinDownloader implements JavaDownloader {
@@ -20,7 +23,23 @@ public class TemurinDownloader implements JavaDownloader {
     public void download(Path javaVersionsDir, JavaDownloadRequest request) throws IOException {
         TemurinPackage temurinPackage = getPackage(request);
         Files.createDirectories(javaVersionsDir);
-        Path downloadPath = javaVersionsDir.resolve(getFileNameFromPackage(temurinPackage.getLink()));
+        String fileName = getFileNameFromPackage(temurinPackage.getLink());
+        if (fileName.endsWith(".tar.gz")) {
+            // extract while downloading, into a temporary directory so that a failed download leaves no broken Java behind
+            Path extractionDir = Files.createTempDirectory(javaVersionsDir, ".extract-");
+            try {
+                ArchiveExtractor extractor = new ArchiveExtractor();
+                request.getClient().streamBigFile(temurinPackage.getLink(), is -> extractor.untar(is, extractionDir),
+                                                  request.getProgressBarTitle(), request.getProgressBarProvider());
+                moveContents(extractionDir, javaVersionsDir);
+            } finally {
+                delete(extractionDir);
+            }
+
+            return;
+        }
+
+        Path downloadPath = javaVersionsDir.resolve(fileName);
         try {
             request.getClient().downloadBigFile(temurinPackage.getLink(), downloadPath, request.getProgressBarTitle(), request.getProgressBarProvider());
             downloadPath.toFile().deleteOnExit();
@@ -50,6 +69,40 @@ public class TemurinDownloader implements JavaDownloader {
         throw new IOException("Failed to find Temuring package for " + request);
     }
 
+    private static void moveContents(Path from, Path to) throws IOException {
+        try (Stream<Path> stream = Files.list(from)) {
+            for (Path child : (Iterable<Path>) stream::iterator) {
+                Path target = to.resolve(child.getFileName().toString());
+                if (!Files.exists(target)) {
+                    Files.move(child, target);
+                    continue;
+                }
+
+                // merge with an existing directory, overwriting files like extracting into it directly would
+                try (Stream<Path> files = Files.walk(child)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        Path fileTarget = target.resolve(child.relativize(file).toString());
+                        if (Files.isDirectory(file)) {
+                            Files.createDirectories(fileTarget);
+                        } else {
+                            Files.move(file, fileTarget, StandardCopyOption.REPLACE_EXISTING);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.exists(path)) {
+            try (Stream<Path> stream = Files.walk(path)) {
+                for (Path file : (Iterable<Path>) stream.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
     private static String getFileNameFromPackage(String url) throws IOException {
         try {
             URI uri = new URI(url);
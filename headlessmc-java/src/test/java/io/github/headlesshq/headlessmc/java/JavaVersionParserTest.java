@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class JavaVersionParserTest {
     private final JavaVersionParser parser = new JavaVersionParser();
@@ -47,4 +50,37 @@ public class JavaVersionParserTest {
                                 () -> parser.parseVersion("test"));
     }
 
+    @Test
+    public void testParseRelease() {
+        Assertions.assertEquals(Integer.valueOf(8), parser.parseRelease("JAVA_VERSION=\"1.8.0_392\"\nOS_NAME=\"Linux\"\n"));
+        Assertions.assertEquals(Integer.valueOf(17), parser.parseRelease("IMPLEMENTOR=\"Eclipse Adoptium\"\nJAVA_VERSION=\"17.0.9\"\n"));
+        Assertions.assertEquals(Integer.valueOf(21), parser.parseRelease("JAVA_VERSION=\"21\"\r\nJAVA_VERSION_DATE=\"2023-09-19\"\r\n"));
+        Assertions.assertEquals(Integer.valueOf(22), parser.parseRelease("JAVA_VERSION=\"22-ea\"\n"));
+        Assertions.assertNull(parser.parseRelease("JAVA_RUNTIME_VERSION=\"17.0.9+9\"\n"));
+        Assertions.assertNull(parser.parseRelease("JAVA_VERSION=\"\"\n"));
+    }
+
+    @Test
+    public void testReadVersion() throws IOException {
+        Path home = Files.createTempDirectory("hmc-java-version-test");
+        Path executable = home.resolve("bin").resolve("java");
+        Files.createDirectories(executable.getParent());
+        Files.write(executable, "not a java executable".getBytes(StandardCharsets.UTF_8));
+        Files.write(home.resolve("release"), "JAVA_VERSION=\"17.0.9\"\n".getBytes(StandardCharsets.UTF_8));
+
+        JavaVersionParser cachingParser = new JavaVersionParser();
+        cachingParser.setCache(new JavaVersionCache(home.resolve("cache.txt")));
+        // the executable cannot be run, so this has to come from the release file
+        Assertions.assertEquals(17, cachingParser.readVersion(executable.toString()));
+
+        cachingParser.getCache().save();
+        Files.delete(home.resolve("release"));
+        cachingParser.setCache(new JavaVersionCache(home.resolve("cache.txt")));
+        Assertions.assertEquals(17, cachingParser.readVersion(executable.toString()));
+
+        // a changed executable has to be read again
+        Files.write(executable, "another executable".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThrows(IOException.class, () -> cachingParser.readVersion(executable.toString()));
+    }
+
 }
@@ -0,0 +1,83 @@
+package io.github.headlesshq.headlessmc.java.download;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ArchiveExtractorTest {
+    private final ArchiveExtractor extractor = new ArchiveExtractor();
+
+    @Test
+    public void testUnzip() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-archive-extractor-test");
+        Path zip = dir.resolve("jdk.zip");
+        try (ZipOutputStream os = new ZipOutputStream(Files.newOutputStream(zip))) {
+            os.putNextEntry(new ZipEntry("jdk/"));
+            os.closeEntry();
+            for (int i = 0; i < 32; i++) {
+                os.putNextEntry(new ZipEntry("jdk/lib/file" + i + ".txt"));
+                os.write(("file " + i).getBytes(StandardCharsets.UTF_8));
+                os.closeEntry();
+            }
+        }
+
+        extractor.extract(zip, false);
+        for (int i = 0; i < 32; i++) {
+            Path file = dir.resolve("jdk").resolve("jdk").resolve("lib").resolve("file" + i + ".txt");
+            Assertions.assertEquals("file " + i, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testUntarStream() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream os = new TarArchiveOutputStream(new GzipCompressorOutputStream(bos))) {
+            os.putArchiveEntry(new TarArchiveEntry("jdk/"));
+            os.closeArchiveEntry();
+            write(os, "jdk/release", "JAVA_VERSION=\"17.0.9\"");
+            write(os, "jdk/bin/java", "java");
+        }
+
+        Path dir = Files.createTempDirectory("hmc-archive-extractor-test");
+        ByteArrayInputStream is = new ByteArrayInputStream(bos.toByteArray());
+        extractor.untar(is, dir);
+        Assertions.assertEquals(-1, is.read());
+        Assertions.assertEquals("JAVA_VERSION=\"17.0.9\"", new String(Files.readAllBytes(dir.resolve("jdk").resolve("release")), StandardCharsets.UTF_8));
+        Assertions.assertEquals("java", new String(Files.readAllBytes(dir.resolve("jdk").resolve("bin").resolve("java")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEntryOutsideOfTarget() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-archive-extractor-test");
+        Path zip = dir.resolve("evil.zip");
+        try (ZipOutputStream os = new ZipOutputStream(Files.newOutputStream(zip))) {
+            os.putNextEntry(new ZipEntry("../evil.txt"));
+            os.write("evil".getBytes(StandardCharsets.UTF_8));
+            os.closeEntry();
+        }
+
+        Assertions.assertThrows(IOException.class, () -> extractor.extract(zip, false));
+        Assertions.assertFalse(Files.exists(dir.resolve("evil.txt")));
+    }
+
+    private static void write(TarArchiveOutputStream os, String name, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(bytes.length);
+        os.putArchiveEntry(entry);
+        os.write(bytes);
+        os.closeArchiveEntry();
+    }
+
+}
@@ -21,6 +21,7 @@ import io.github.headlesshq.headlessmc.launcher.command.LaunchContext;
 import io.github.headlesshq.headlessmc.launcher.command.download.VersionInfoCache;
 import io.github.headlesshq.headlessmc.launcher.download.ChecksumService;
 import io.github.headlesshq.headlessmc.launcher.download.DownloadService;
+import io.github.headlesshq.headlessmc.launcher.download.HttpConnectionPool;
 import io.github.headlesshq.headlessmc.launcher.files.*;
 import io.github.headlesshq.headlessmc.launcher.java.JavaService;
 import io.github.headlesshq.headlessmc.launcher.launch.ProcessFactory;
@@ -37,6 +38,7 @@ import io.github.headlesshq.headlessmc.os.OSFactory;
 import net.lenni0451.commons.httpclient.constants.Headers;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -104,6 +106,15 @@ public class LauncherBuilder {
     }
 
     public LauncherBuilder configureDownloadService() {
+        Long maxConnectionsPerHost = requireNonNull(configService, "ConfigHolder was null!").getConfig().get(LauncherProperties.HTTP_MAX_CONNECTIONS_PER_HOST);
+        if (maxConnectionsPerHost != null) {
+            downloadService.setConnectionPool(new HttpConnectionPool(maxConnectionsPerHost.intValue()));
+        }
+
+        if (launcherConfig != null && configService.getConfig().get(LauncherProperties.DOWNLOAD_LOCK, true)) {
+            downloadService.setLockDirectory(Paths.get(launcherConfig.getFileManager().getPath(), "locks"));
+        }
+
         if (requireNonNull(configService, "ConfigHolder was null!").getConfig().get(LauncherProperties.HTTP_USER_AGENT_ENABLED, true)) {
             downloadService.setHttpClientFactory(() ->
                     downloadService.getDefaultHttpClient()
@@ -43,6 +43,8 @@ public interface LauncherProperties extends HmcProperties {
     Property<Boolean> ALWAYS_LOOKUP_FLAG = bool("hmc.always.lookup.flag");
 
     Property<Boolean> JOML_NO_UNSAFE = bool("hmc.joml.no.unsafe");
+    Property<Boolean> LWJGL_INVOKE_DYNAMIC = bool("hmc.lwjgl.invokedynamic");
+    Property<Boolean> LWJGL_CONSTANT_STUBS = bool("hmc.lwjgl.constant.stubs");
 
     Property<String> XUID = string("hmc.xuid");
     Property<String> CLIENT_ID = string("hmc.clientId");
@@ -51,6 +53,10 @@ public interface LauncherProperties extends HmcProperties {
 
     Property<String> FABRIC_URL = string("hmc.fabric.url");
     Property<Boolean> RE_THROW_LAUNCH_EXCEPTIONS = bool("hmc.rethrow.launch.exceptions");
+    Property<Boolean> LAUNCH_PIPELINE = bool("hmc.launch.pipeline");
+    Property<Boolean> INSTRUMENTATION_CACHE = bool("hmc.instrumentation.cache");
+    Property<Long> INSTRUMENTATION_CACHE_SIZE = number("hmc.instrumentation.cache.size");
+    Property<Boolean> INSTRUMENTATION_STORE = bool("hmc.instrumentation.store");
 
     Property<Boolean> OFFLINE = bool("hmc.offline");
 
@@ -67,11 +73,21 @@ public interface LauncherProperties extends HmcProperties {
     Property<Boolean> ASSETS_CHECK_SIZE = bool("hmc.assets.check.size"); // < implied by check hash
     Property<Boolean> ASSETS_CHECK_FILE_HASH = bool("hmc.assets.check.file.hash");
     Property<Boolean> ASSETS_BACKOFF = bool("hmc.assets.backoff");
+    Property<String> ASSETS_MATERIALIZATION = string("hmc.assets.materialization");
     Property<Boolean> ALWAYS_DOWNLOAD_ASSETS_INDEX = bool("hmc.always.download.assets.index");
 
+    Property<Long> DOWNLOAD_CONCURRENCY = number("hmc.download.concurrency");
+    Property<Boolean> DOWNLOAD_VIRTUAL_THREADS = bool("hmc.download.virtual.threads");
+    Property<Boolean> DOWNLOAD_LOCK = bool("hmc.download.lock");
+
     Property<Boolean> LIBRARIES_CHECK_HASH = bool("hmc.libraries.check.hash");
     Property<Boolean> LIBRARIES_CHECK_SIZE = bool("hmc.libraries.check.size"); // < implied by check hash
     Property<Boolean> LIBRARIES_CHECK_FILE_HASH = bool("hmc.libraries.check.file.hash");
+    Property<Boolean> LIBRARIES_PARALLEL = bool("hmc.libraries.parallel");
+
+    Property<Boolean> VERIFIED_FILE_INDEX = bool("hmc.verified.file.index");
+    Property<Boolean> VERIFIED_FILE_INDEX_REVERIFY = bool("hmc.verified.file.index.reverify");
+    Property<Boolean> VERSION_SNAPSHOT = bool("hmc.version.snapshot");
 
     Property<Boolean> SET_LIBRARY_DIR = bool("hmc.set.library.dir");
     Property<Boolean> NO_AUTO_CONFIG = bool("hmc.no.auto.config");
@@ -88,9 +104,11 @@ public interface LauncherProperties extends HmcProperties {
 
     // TODO: actual cache for each version?
     Property<String> EXTRACTED_FILE_CACHE_UUID = string("hmc.extracted.file.cache.uuid");
+    Property<Boolean> NATIVES_CACHE = bool("hmc.natives.cache");
 
     Property<Boolean> HTTP_USER_AGENT_ENABLED = bool("hmc.http.user.agent.enabled");
     Property<String> HTTP_USER_AGENT = string("hmc.http.user.agent");
+    Property<Long> HTTP_MAX_CONNECTIONS_PER_HOST = number("hmc.http.max.connections.per.host");
 
     Property<Boolean> GAME_DIR_FOR_EACH_VERSION = bool("hmc.game.dir.for.each.version");
 
@@ -105,6 +123,7 @@ public interface LauncherProperties extends HmcProperties {
     Property<Boolean> REQUIRE_EXACT_JAVA = bool("hmc.java.require.exact");
     Property<String> JAVA_DISTRIBUTION = string("hmc.auto.java.distribution");
     Property<Boolean> JAVA_ALWAYS_ADD_FILE_PERMISSIONS = bool("hmc.java.always.add.file.permissions");
+    Property<Boolean> JAVA_VERSION_CACHE = bool("hmc.java.version.cache");
 
     Property<Boolean> CRASH_REPORT_WATCHER = bool("hmc.crash.report.watcher");
     Property<Boolean> CRASH_REPORT_WATCHER_EXIT = bool("hmc.crash.report.watcher.exit");
@@ -0,0 +1,112 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lombok.Data;
+import io.github.headlesshq.headlessmc.launcher.util.IOConsumer;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads an asset index, e.g. {@code assets/indexes/<id>.json}, with a streaming {@link JsonReader}.
+ * Instead of building a tree of the whole index, every entry of the "objects" object
+ * is passed to a consumer as soon as it has been read.
+ */
+public class AssetIndexReader {
+    /**
+     * Reads the given asset index.
+     *
+     * @param index    the asset index to read.
+     * @param consumer receives every asset in the index, in order.
+     * @return the amount of assets in the index.
+     * @throws IOException if reading fails, the index is malformed or the consumer throws.
+     */
+    public int read(Path index, IOConsumer<Asset> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            return read(new JsonReader(reader), consumer);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Couldn't read contents of " + index.toAbsolutePath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private int read(JsonReader reader, IOConsumer<Asset> consumer) throws IOException {
+        int count = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("objects".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                count = Math.max(count, 0);
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    consumer.accept(readAsset(reader.nextName(), reader));
+                    count++;
+                }
+
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+        if (count < 0) {
+            throw new IOException("Asset index does not contain any objects");
+        }
+
+        return count;
+    }
+
+    private Asset readAsset(String name, JsonReader reader) throws IOException {
+        String hash = null;
+        long size = -1L;
+        boolean mapToResources = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "hash":
+                    hash = reader.nextString();
+                    break;
+                case "size":
+                    size = reader.nextLong();
+                    break;
+                case "map_to_resources":
+                    mapToResources = reader.peek() == JsonToken.STRING
+                        ? Boolean.parseBoolean(reader.nextString())
+                        : reader.nextBoolean();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+        if (hash == null) {
+            throw new IOException("Asset " + name + " does not have a hash");
+        }
+
+        return new Asset(name, hash, size, mapToResources);
+    }
+
+    /**
+     * An entry of the "objects" in an asset index.
+     */
+    @Data
+    public static final class Asset {
+        private final String name;
+        private final String hash;
+        /**
+         * The size of the asset or -1 if the index does not specify it.
+         */
+        private final long size;
+        private final boolean mapToResources;
+
+        public @Nullable Long getSizeOrNull() {
+            return size < 0L ? null : size;
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import lombok.CustomLog;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * Materializes assets outside of the objects directory,
+ * in {@code assets/virtual/legacy} for old versions and in the resources directory for assets mapped to resources.
+ * Instead of copying them, assets can be hard linked or symbolically linked to their object.
+ * If a link cannot be created, e.g. because the file system does not support it,
+ * this and all following assets are copied instead.
+ */
+@CustomLog
+@RequiredArgsConstructor
+public class AssetMaterializer {
+    @Getter
+    private final Strategy strategy;
+    private volatile boolean linkFailed;
+
+    /**
+     * Materializes the given object at the target location, replacing the file there.
+     *
+     * @param object the object of the asset in the objects directory.
+     * @param target the location to materialize the asset at.
+     * @throws IOException if the asset could neither be linked nor copied.
+     */
+    public void materialize(Path object, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        if (strategy != Strategy.COPY && !linkFailed) {
+            try {
+                Files.deleteIfExists(target);
+                if (strategy == Strategy.HARDLINK) {
+                    Files.createLink(target, object);
+                } else {
+                    Files.createSymbolicLink(target, object.toAbsolutePath());
+                }
+
+                return;
+            } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                log.warn("Failed to " + strategy.name().toLowerCase(Locale.ENGLISH) + " " + target + ", copying assets instead: " + e);
+                linkFailed = true;
+            }
+        }
+
+        Files.copy(object, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public enum Strategy {
+        COPY,
+        HARDLINK,
+        SYMLINK;
+
+        /**
+         * @param name the name of a strategy, case-insensitive.
+         * @return the strategy with that name, {@link #COPY} if there is none.
+         */
+        public static Strategy parse(@Nullable String name) {
+            if (name != null && !name.isEmpty()) {
+                for (Strategy strategy : values()) {
+                    if (strategy.name().equalsIgnoreCase(name.trim())) {
+                        return strategy;
+                    }
+                }
+
+                log.warn("Unknown asset materialization strategy '" + name + "', copying assets");
+            }
+
+            return COPY;
+        }
+    }
+
+}
@@ -1,16 +1,14 @@
 package io.github.headlesshq.headlessmc.launcher.download;
 
-import com.google.gson.JsonObject;
 import lombok.CustomLog;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.val;
-import io.github.headlesshq.headlessmc.api.command.line.CommandLine;
+import io.github.headlesshq.headlessmc.api.command.line.ProgressBarProvider;
 import io.github.headlesshq.headlessmc.api.command.line.Progressbar;
 import io.github.headlesshq.headlessmc.api.config.HasConfig;
 import io.github.headlesshq.headlessmc.launcher.LauncherProperties;
 import io.github.headlesshq.headlessmc.launcher.files.FileManager;
-import io.github.headlesshq.headlessmc.launcher.util.JsonUtil;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
@@ -18,7 +16,8 @@ import java.io.OutputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 
 @CustomLog
 @RequiredArgsConstructor
@@ -27,8 +26,9 @@ public class AssetsDownloader {
 
     private final ChecksumService checksumService = new ChecksumService();
     private final DummyAssets dummyAssets = new DummyAssets();
+    private final AssetIndexReader indexReader = new AssetIndexReader();
 
-    private final CommandLine commandLine;
+    private final ProgressBarProvider progressBarProvider;
     private final DownloadService downloadService;
     private final HasConfig config;
     private final FileManager files;
@@ -38,6 +38,19 @@ public class AssetsDownloader {
     @Setter
     protected boolean shouldLog = true;
 
+    /**
+     * If set, files that have been verified before are not hashed again by {@link #integrityCheck(String, Path, String, Long)}.
+     */
+    @Setter
+    private @Nullable VerifiedFileIndex verifiedFileIndex;
+
+    /**
+     * Creates the copies of assets in {@code assets/virtual/legacy} and the resources directory.
+     * If not set, it is created from {@link LauncherProperties#ASSETS_MATERIALIZATION}.
+     */
+    @Setter
+    private AssetMaterializer materializer;
+
     public void download() throws IOException {
         Path index = files.getDir("assets").toPath().resolve("indexes").resolve(id + ".json");
         // Why does this file always corrupt on CheerpJ?
@@ -46,11 +59,22 @@ public class AssetsDownloader {
             downloadService.download(url, index.toAbsolutePath());
         }
 
-        JsonObject objects = JsonUtil.getObject(JsonUtil.fromFile(index.toFile()), "objects");
-        if (objects == null || !objects.isJsonObject()) {
-            throw new IOException("Couldn't read contents of " + index.toAbsolutePath());
+        Path assets = files.getDir("assets").toPath();
+        Path resources = files.get(true, false, "resources").toPath();
+        InstalledAssets installed = shouldCheckFileHash() ? null : InstalledAssets.scan(assets, resources);
+        List<AssetIndexReader.Asset> toCheck = new ArrayList<>();
+        int total = indexReader.read(index, asset -> {
+            if (installed == null || !isInstalled(installed, asset)) {
+                toCheck.add(asset);
+            }
+        });
+
+        if (toCheck.isEmpty()) {
+            log.debug("All " + total + " assets of " + id + " are installed");
+            return;
         }
 
+        log.debug((total - toCheck.size()) + " of " + total + " assets are installed, checking " + toCheck.size());
         ParallelIOService ioService = new ParallelIOService(
                 config.getConfig().get(LauncherProperties.ASSETS_DELAY, 0L),
                 Math.max(1, config.getConfig().get(LauncherProperties.ASSETS_RETRIES, 3L).intValue()),
@@ -58,26 +82,46 @@ public class AssetsDownloader {
                 config.getConfig().get(LauncherProperties.ASSETS_BACKOFF, true)
         );
 
+        ioService.setConcurrency(config.getConfig().get(LauncherProperties.DOWNLOAD_CONCURRENCY, (long) ParallelIOService.DEFAULT_CONCURRENCY).intValue());
+        ioService.setVirtualThreads(config.getConfig().get(LauncherProperties.DOWNLOAD_VIRTUAL_THREADS, false));
+
         // TODO: provide better ETA, later assets take longer
-        try (Progressbar progressbar = commandLine.displayProgressBar(new Progressbar.Configuration("Downloading Assets", objects.size()))) {
+        try (Progressbar progressbar = Progressbar.synchronizedProgressbar(progressBarProvider.displayProgressBar(new Progressbar.Configuration("Downloading Assets", toCheck.size())))) {
             ioService.setShouldLog(progressbar.isDummy());
             shouldLog = progressbar.isDummy();
 
-            objects.getAsJsonObject().entrySet().forEach(entry -> ioService.addTask(progress -> {
-                JsonObject jo = entry.getValue().getAsJsonObject();
-                downloadAsset(
-                        progress,
-                        entry.getKey(),
-                        jo.get("hash").getAsString(),
-                        jo.get("size") == null ? null : jo.get("size").getAsLong(),
-                        jo.get("map_to_resources") != null && jo.get("map_to_resources").getAsBoolean()
-                );
-
-                progressbar.step();
-            }));
+            for (AssetIndexReader.Asset asset : toCheck) {
+                ioService.addTask(progress -> {
+                    downloadAsset(progress, asset.getName(), asset.getHash(), asset.getSizeOrNull(), asset.isMapToResources());
+                    progressbar.step();
+                });
+            }
 
             ioService.execute();
         }
+
+        log.debug("Connections after downloading assets: " + downloadService.getConnectionPool());
+    }
+
+    /**
+     * Checks, without hashing any file, if an asset does not need to be checked by {@link #downloadAsset(String, String, String, Long, boolean)}.
+     * That is the case if the asset and its legacy and resources copies exist. Only called if {@link #shouldCheckFileHash()} is disabled.
+     *
+     * @param installed the assets that exist.
+     * @param asset     the asset to check.
+     * @return {@code true} if the asset is installed.
+     * @throws IOException if listing the legacy or resources directory fails.
+     */
+    protected boolean isInstalled(InstalledAssets installed, AssetIndexReader.Asset asset) throws IOException {
+        if (!installed.hasObject(asset.getHash())) {
+            return false;
+        }
+
+        if ("pre-1.6".equals(id) && !installed.hasLegacy(asset.getName())) {
+            return false;
+        }
+
+        return !asset.isMapToResources() || installed.hasResource(asset.getName());
     }
 
     protected void downloadAsset(String progress, String name, String hash, @Nullable Long size, boolean mapToResources) throws IOException {
@@ -92,10 +136,8 @@ public class AssetsDownloader {
             }
 
             if (bytes == null) {
-                bytes = download(firstTwo, hash, progress, name, to, size);
-            }
-
-            if (bytes != null) {
+                download(firstTwo, hash, progress, name, to, size);
+            } else {
                 Files.createDirectories(to.getParent());
                 try (OutputStream os = Files.newOutputStream(to)) {
                     os.write(bytes);
@@ -107,7 +149,7 @@ public class AssetsDownloader {
         mapToResources(name, file, mapToResources, hash, size, true);
     }
 
-    protected byte @Nullable [] download(String firstTwo, String hash, String progress, String name, Path to, @Nullable Long size) throws IOException {
+    protected void download(String firstTwo, String hash, String progress, String name, Path to, @Nullable Long size) throws IOException {
         val from = URL + firstTwo + "/" + hash;
         if (shouldLog) {
             log.info(progress + " Downloading: " + name + " from " + from + " to " + to);
@@ -117,7 +159,10 @@ public class AssetsDownloader {
         boolean checkSize = checkHash || config.getConfig().get(LauncherProperties.ASSETS_CHECK_SIZE, true);
         Long expectedSize = checkSize ? size : null;
         String expectedHash = checkHash ? hash : null;
-        return downloadService.download(new URL(from), expectedSize, expectedHash);
+        downloadService.downloadToFile(new URL(from), to, expectedSize, expectedHash);
+        if (verifiedFileIndex != null && expectedHash != null) {
+            verifiedFileIndex.markVerified(to, expectedHash);
+        }
     }
 
     protected Path getAssetsFile(String name, Path file, @Nullable String hash, @Nullable Long size) throws IOException {
@@ -141,7 +186,7 @@ public class AssetsDownloader {
 
             integrityCheck("Legacy", legacy, hash, size);
             if (copy && !Files.exists(legacy)) {
-                Files.copy(file, legacy, StandardCopyOption.REPLACE_EXISTING);
+                getMaterializer().materialize(file, legacy);
             }
         }
     }
@@ -152,13 +197,21 @@ public class AssetsDownloader {
             log.debug("Mapping " + name + " to resources " + resources);
             integrityCheck("Resources", resources, hash, size);
             if (copy && !Files.exists(resources)) {
-                Files.copy(file, resources, StandardCopyOption.REPLACE_EXISTING);
+                getMaterializer().materialize(file, resources);
             }
         }
     }
 
+    private synchronized AssetMaterializer getMaterializer() {
+        if (materializer == null) {
+            materializer = new AssetMaterializer(AssetMaterializer.Strategy.parse(config.getConfig().get(LauncherProperties.ASSETS_MATERIALIZATION)));
+        }
+
+        return materializer;
+    }
+
     protected boolean integrityCheck(String type, Path file, String hash, @Nullable Long size) throws IOException {
-        if (shouldCheckFileHash() && Files.exists(file) && !checksumService.checkIntegrity(file, size, hash)) {
+        if (shouldCheckFileHash() && Files.exists(file) && !checkIntegrity(file, size, hash)) {
             log.warn(type + " file " + file + " failed the integrity check, deleting...");
             Files.delete(file);
             return false;
@@ -167,4 +220,12 @@ public class AssetsDownloader {
         return true;
     }
 
+    private boolean checkIntegrity(Path file, @Nullable Long size, String hash) throws IOException {
+        if (verifiedFileIndex != null) {
+            return verifiedFileIndex.checkIntegrity(file, size, hash);
+        }
+
+        return checksumService.checkIntegrity(file, size, hash);
+    }
+
 }
@@ -39,7 +39,7 @@ public class ChecksumService {
 
     public boolean checkIntegrity(InputStream is, @Nullable Long size, @Nullable String hash, byte[] buffer, IOConsumer<Integer> readBytesConsumer) throws IOException {
         int n = 0;
-        int totalReadBytes = 0;
+        long totalReadBytes = 0;
         MessageDigest digest = getHashFunction();
         while (n != -1) {
             n = is.read(buffer);
@@ -50,7 +50,20 @@ public class ChecksumService {
             }
         }
 
-        return (size == null || size == totalReadBytes) && (hash == null || hash.equalsIgnoreCase(toHashString(digest.digest())));
+        return checkIntegrity(digest, totalReadBytes, size, hash);
+    }
+
+    /**
+     * Verifies data that has already been passed through the given digest, e.g. while streaming it to a file.
+     *
+     * @param digest the digest the data has been passed through, obtained from {@link #getHashFunction()}.
+     * @param readBytes the amount of bytes passed through the digest.
+     * @param size the expected size.
+     * @param hash the expected hash.
+     * @return {@code true} if size and hash match.
+     */
+    public boolean checkIntegrity(MessageDigest digest, long readBytes, @Nullable Long size, @Nullable String hash) {
+        return (size == null || size == readBytes) && (hash == null || hash.equalsIgnoreCase(toHashString(digest.digest())));
     }
 
     public String hash(byte[] bytes) {
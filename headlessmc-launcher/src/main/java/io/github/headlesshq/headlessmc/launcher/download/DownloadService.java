@@ -1,10 +1,13 @@
 package io.github.headlesshq.headlessmc.launcher.download;
 
+import lombok.CustomLog;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import io.github.headlesshq.headlessmc.api.command.line.ProgressBarProvider;
+import io.github.headlesshq.headlessmc.api.command.line.Progressbar;
 import io.github.headlesshq.headlessmc.java.download.DownloadClient;
+import io.github.headlesshq.headlessmc.java.download.ProgressInputStream;
 import io.github.headlesshq.headlessmc.launcher.files.IOService;
 import io.github.headlesshq.headlessmc.launcher.util.IOConsumer;
 import net.lenni0451.commons.httpclient.HttpClient;
@@ -13,17 +16,44 @@ import net.lenni0451.commons.httpclient.RetryHandler;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.function.Supplier;
 
 @Getter
+@CustomLog
 @RequiredArgsConstructor
 public class DownloadService extends IOService implements DownloadClient {
+    /**
+     * The amount of lock files in the {@link #getLockDirectory()}.
+     */
+    static final int LOCK_STRIPES = 256;
+
     private final ChecksumService defaultChecksumService = new ChecksumService();
     private final ChecksumService checksumService;
     @Setter
     private Supplier<HttpClient> httpClientFactory = this::getDefaultHttpClient;
+    /**
+     * Shared by all requests of this service, so that connections get reused.
+     */
+    @Setter
+    private HttpConnectionPool connectionPool = new HttpConnectionPool();
+    /**
+     * The directory containing the lock files used by {@link #downloadToFile(URL, Path, Long, String)},
+     * so that multiple processes sharing the directory do not download the same file at the same time.
+     * The directory contains at most {@link #LOCK_STRIPES} lock files, every destination is locked with
+     * the one picked by the hash of its path. If {@code null}, downloads are not locked.
+     */
+    @Setter
+    private @Nullable Path lockDirectory;
 
     public DownloadService() {
         this(new ChecksumService());
@@ -51,6 +81,104 @@ public class DownloadService extends IOService implements DownloadClient {
         action.accept(bytes);
     }
 
+    /**
+     * Downloads the given URL into the given file without holding the content in memory.
+     * The response is streamed into a temporary file next to the destination while
+     * its size and hash are verified on the fly. Only if the verification succeeds
+     * the temporary file is moved to the destination.
+     * <p>If there is a {@link #getLockDirectory()}, the destination is locked during the download.
+     * If the destination has been created by another process while waiting for the lock,
+     * the download is skipped, so concurrent launches download each file only once.
+     *
+     * @param from the url to download from.
+     * @param to the file to download to.
+     * @param size the expected size of the file, or {@code null} to not check the size.
+     * @param hash the expected hash of the file, or {@code null} to not check the hash.
+     * @throws IOException if the download or the verification fails.
+     */
+    public void downloadToFile(URL from, Path to, @Nullable Long size, @Nullable String hash) throws IOException {
+        Path lockDirectory = this.lockDirectory;
+        if (lockDirectory == null) {
+            downloadToFileUnlocked(from, to, size, hash);
+            return;
+        }
+
+        boolean existed = Files.exists(to);
+        FileLocks.Lock lock;
+        try {
+            lock = lock(lockDirectory, to);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("Failed to lock " + to + ", downloading without lock: " + e);
+            downloadToFileUnlocked(from, to, size, hash);
+            return;
+        }
+
+        try (FileLocks.Lock ignored = lock) {
+            // files are only moved to their destination after they have been verified, so checking the size suffices
+            if (!existed && Files.exists(to) && (size == null || Files.size(to) == size)) {
+                log.debug(to + " has been downloaded by another process or thread");
+                return;
+            }
+
+            downloadToFileUnlocked(from, to, size, hash);
+        }
+    }
+
+    FileLocks.Lock lock(Path lockDirectory, Path file) throws IOException {
+        Files.createDirectories(lockDirectory);
+        return FileLocks.lock(lockDirectory.resolve(getLockFileName(file)));
+    }
+
+    static String getLockFileName(Path file) {
+        int hash = file.toAbsolutePath().normalize().toString().hashCode();
+        // files sharing a stripe are downloaded one after another, which is slower, but still correct
+        int stripe = (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+        return String.format("download-%02x.lock", stripe);
+    }
+
+    private void downloadToFileUnlocked(URL from, Path to, @Nullable Long size, @Nullable String hash) throws IOException {
+        Path parent = to.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, to.getFileName().toString(), ".part");
+        try {
+            MessageDigest digest = checksumService.getHashFunction();
+            long[] written = new long[1];
+            HttpClient httpClient = httpClientFactory.get()
+                    .setExecutor(hc -> new StreamingRequestExecutor(hc, connectionPool, (is, contentLength) -> written[0] = transfer(is, temp, digest)));
+            HttpResponse httpResponse = httpClient.get(from).execute();
+            if (httpResponse.getStatusCode() > 299 || httpResponse.getStatusCode() < 200) {
+                throw new IOException("Failed to get " + from + ", response " + httpResponse.getStatusCode() + ": " + httpResponse.getContentAsString());
+            }
+
+            if (!checksumService.checkIntegrity(digest, written[0], size, hash)) {
+                throw new IOException("Failed to verify checksum of " + from + "! Expected " + hash + " and size " + size + ", got " + written[0] + " bytes");
+            }
+
+            move(temp, to);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private long transfer(InputStream is, Path to, MessageDigest digest) throws IOException {
+        long written = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        try (ReadableByteChannel in = Channels.newChannel(is);
+             FileChannel out = FileChannel.open(to, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer.array(), buffer.arrayOffset(), buffer.limit());
+                while (buffer.hasRemaining()) {
+                    written += out.write(buffer);
+                }
+
+                buffer.clear();
+            }
+        }
+
+        return written;
+    }
+
     public HttpResponse download(URL from) throws IOException {
         HttpResponse httpResponse = get(from);
         if (httpResponse.getStatusCode() > 299 || httpResponse.getStatusCode() < 200) {
@@ -67,7 +195,10 @@ public class DownloadService extends IOService implements DownloadClient {
     }
 
     public HttpResponse get(URL url) throws IOException {
-        return httpClientFactory.get().get(url).execute();
+        return httpClientFactory.get()
+                .setExecutor(hc -> new StreamingRequestExecutor(hc, connectionPool, null))
+                .get(url)
+                .execute();
     }
 
     public HttpClient getDefaultHttpClient() {
@@ -92,7 +223,22 @@ public class DownloadService extends IOService implements DownloadClient {
     @Override
     public void downloadBigFile(String url, Path destination, String progressBarTitle, ProgressBarProvider progressBarProvider) throws IOException {
         HttpClient httpClient = httpClientFactory.get()
-                .setExecutor(hc -> new LargeFileRequestExecutor(hc, progressBarProvider, progressBarTitle, destination));
+                .setExecutor(hc -> new LargeFileRequestExecutor(hc, connectionPool, progressBarProvider, progressBarTitle, destination));
+        HttpResponse httpResponse = httpClient.get(new URL(url)).execute();
+        if (httpResponse.getStatusCode() > 299 || httpResponse.getStatusCode() < 200) {
+            throw new IOException("Failed to download " + url + ", response " + httpResponse.getStatusCode() + ": " + httpResponse.getContentAsString());
+        }
+    }
+
+    @Override
+    public void streamBigFile(String url, StreamConsumer consumer, String progressBarTitle, ProgressBarProvider progressBarProvider) throws IOException {
+        HttpClient httpClient = httpClientFactory.get()
+                .setExecutor(hc -> new StreamingRequestExecutor(hc, connectionPool, (is, contentLength) -> {
+                    try (Progressbar progressbar = progressBarProvider.displayProgressBar(
+                            new Progressbar.Configuration(progressBarTitle, contentLength, new Progressbar.Configuration.Unit("mb", 1_000_000)))) {
+                        consumer.accept(new ProgressInputStream(is, progressbar));
+                    }
+                }));
         HttpResponse httpResponse = httpClient.get(new URL(url)).execute();
         if (httpResponse.getStatusCode() > 299 || httpResponse.getStatusCode() < 200) {
             throw new IOException("Failed to download " + url + ", response " + httpResponse.getStatusCode() + ": " + httpResponse.getContentAsString());
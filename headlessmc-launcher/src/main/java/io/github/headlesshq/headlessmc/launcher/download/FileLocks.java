@@ -0,0 +1,110 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive locks on files, which work across threads and across processes.
+ * A {@link FileLock} is held by the whole JVM and cannot be acquired twice by the same JVM,
+ * so threads of this process first acquire a {@link ReentrantLock} for the lock file.
+ * If a thread locks a file it already holds, only the hold count of that lock is increased
+ * and the file is not locked again.
+ */
+@UtilityClass
+class FileLocks {
+    // guarded by itself, entries are removed once no thread uses them anymore
+    private static final Map<Path, Holder> LOCKS = new HashMap<>();
+
+    /**
+     * Blocks until the given lock file has been locked by this thread.
+     *
+     * @param file the lock file, will be created if it does not exist.
+     * @return the acquired lock, which has to be closed to release it.
+     * @throws IOException if the file cannot be locked, e.g. because the file system does not support locking.
+     */
+    public static Lock lock(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        Holder holder;
+        synchronized (LOCKS) {
+            holder = LOCKS.computeIfAbsent(key, k -> new Holder());
+            holder.users++;
+        }
+
+        holder.lock.lock();
+        if (holder.lock.getHoldCount() > 1) {
+            return new Lock(key, holder, null, null);
+        }
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(key, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            return new Lock(key, holder, channel, channel.lock());
+        } catch (IOException | RuntimeException e) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } finally {
+                release(key, holder);
+            }
+
+            throw e;
+        }
+    }
+
+    private static void release(Path key, Holder holder) {
+        holder.lock.unlock();
+        synchronized (LOCKS) {
+            if (--holder.users == 0) {
+                LOCKS.remove(key);
+            }
+        }
+    }
+
+    private static final class Holder {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+
+    public static final class Lock implements Closeable {
+        private final Path key;
+        private final Holder holder;
+        private final @Nullable FileChannel channel;
+        private final @Nullable FileLock fileLock;
+
+        private Lock(Path key, Holder holder, @Nullable FileChannel channel, @Nullable FileLock fileLock) {
+            this.key = key;
+            this.holder = holder;
+            this.channel = channel;
+            this.fileLock = fileLock;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (fileLock != null) {
+                    fileLock.release();
+                }
+            } finally {
+                try {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                } finally {
+                    release(key, holder);
+                }
+            }
+        }
+    }
+
+}
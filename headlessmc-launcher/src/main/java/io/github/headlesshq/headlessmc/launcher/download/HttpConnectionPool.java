@@ -0,0 +1,182 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import lombok.Getter;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Manages the connections made by the {@link DownloadService} for the lifetime of the launcher.
+ * Connections are not closed after a request, but handed back to the keep-alive cache of
+ * {@link HttpURLConnection}, so that thousands of small requests to the same host,
+ * like the asset downloads, do not each pay for their own TCP and TLS handshake.
+ * This also limits the amount of concurrent connections per host and counts how often TLS connections got reused.
+ * <p>The JDK keeps at most {@code http.maxConnections} idle connections per host, 5 by default.
+ * That is a global setting, read once by the JDK, so this pool does not change it.
+ * To keep more connections alive, start HeadlessMc with e.g. {@code -Dhttp.maxConnections=16}.
+ */
+public class HttpConnectionPool {
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = ParallelIOService.DEFAULT_CONCURRENCY;
+
+    private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder secureRequests = new LongAdder();
+    private final LongAdder openedTlsConnections = new LongAdder();
+    private final SSLSocketFactory socketFactory;
+    @Getter
+    private final int maxConnectionsPerHost;
+
+    public HttpConnectionPool() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    /**
+     * Creates a new HttpConnectionPool.
+     *
+     * @param maxConnectionsPerHost the maximum amount of concurrent connections to a single host.
+     */
+    public HttpConnectionPool(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+        this.socketFactory = new CountingSSLSocketFactory(HttpsURLConnection.getDefaultSSLSocketFactory());
+    }
+
+    /**
+     * Configures the given connection to use this pool.
+     *
+     * @param connection the connection to configure.
+     */
+    public void configure(HttpURLConnection connection) {
+        if (connection instanceof HttpsURLConnection) {
+            // the keep-alive cache only reuses connections created by the same factory
+            ((HttpsURLConnection) connection).setSSLSocketFactory(socketFactory);
+            secureRequests.increment();
+        }
+    }
+
+    /**
+     * Blocks until a connection to the host of the given url is available.
+     * Must be followed by a call to {@link #release(URL)}.
+     *
+     * @param url the url to connect to.
+     * @throws IOException if the thread gets interrupted while waiting.
+     */
+    public void acquire(URL url) throws IOException {
+        try {
+            getSemaphore(url).acquire();
+            requests.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted while waiting for a connection to " + url.getHost());
+        }
+    }
+
+    /**
+     * Frees up a connection to the host of the given url.
+     *
+     * @param url the url that has been passed to {@link #acquire(URL)}.
+     */
+    public void release(URL url) {
+        getSemaphore(url).release();
+    }
+
+    /**
+     * @return the amount of requests made through this pool.
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the amount of new TLS connections that had to be opened. Plain http connections are not counted.
+     */
+    public long getOpenedTlsConnections() {
+        return openedTlsConnections.sum();
+    }
+
+    /**
+     * @return the amount of https requests that reused an existing connection. Plain http requests are not counted.
+     */
+    public long getReusedTlsConnections() {
+        return Math.max(0L, secureRequests.sum() - openedTlsConnections.sum());
+    }
+
+    private Semaphore getSemaphore(URL url) {
+        String host = url.getProtocol() + "://" + url.getAuthority().toLowerCase(Locale.ENGLISH);
+        return hosts.computeIfAbsent(host, k -> new Semaphore(maxConnectionsPerHost));
+    }
+
+    @Override
+    public String toString() {
+        return "HttpConnectionPool{requests=" + getRequests()
+                + ", openedTlsConnections=" + getOpenedTlsConnections()
+                + ", reusedTlsConnections=" + getReusedTlsConnections()
+                + ", maxConnectionsPerHost=" + maxConnectionsPerHost + "}";
+    }
+
+    /**
+     * Counts every new connection, reused connections do not create a new socket.
+     */
+    private final class CountingSSLSocketFactory extends SSLSocketFactory {
+        private final SSLSocketFactory delegate;
+
+        private CountingSSLSocketFactory(SSLSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        private Socket count(Socket socket) {
+            openedTlsConnections.increment();
+            return socket;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return count(delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            return count(delegate.createSocket(socket, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return count(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return count(delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return count(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return count(delegate.createSocket(address, port, localAddress, localPort));
+        }
+    }
+
+}
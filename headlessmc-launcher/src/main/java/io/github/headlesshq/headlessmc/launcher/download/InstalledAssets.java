@@ -0,0 +1,134 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import lombok.CustomLog;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The asset files that exist in an assets directory, read with one directory listing
+ * for each of the 256 shards in {@code objects/}, instead of one {@link Files#exists} call per asset.
+ * On network file systems a listing is much cheaper than thousands of single lookups.
+ * Unfinished downloads, which end with {@code .part}, are not considered to be installed.
+ */
+@CustomLog
+public class InstalledAssets {
+    private static final String PART = ".part";
+
+    private final Set<String> objects;
+    private final Path legacy;
+    private final Path resources;
+    private Set<String> legacyFiles;
+    private Set<String> resourceFiles;
+
+    private InstalledAssets(Set<String> objects, Path legacy, Path resources) {
+        this.objects = objects;
+        this.legacy = legacy;
+        this.resources = resources;
+    }
+
+    /**
+     * Lists the objects in the given assets directory.
+     * The legacy and resources directories are only listed once they are needed.
+     *
+     * @param assets    the assets directory.
+     * @param resources the resources directory.
+     * @return the installed assets.
+     * @throws IOException if listing the objects fails.
+     */
+    public static InstalledAssets scan(Path assets, Path resources) throws IOException {
+        long nanos = System.nanoTime();
+        Set<String> objects = new HashSet<>();
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(assets.resolve("objects"))) {
+            for (Path shard : shards) {
+                String shardName = shard.getFileName().toString();
+                if (shardName.length() != 2) {
+                    continue;
+                }
+
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(shard)) {
+                    for (Path object : stream) {
+                        String name = object.getFileName().toString();
+                        if (name.startsWith(shardName) && !name.endsWith(PART)) {
+                            objects.add(name);
+                        }
+                    }
+                } catch (NotDirectoryException ignored) {
+                    // not a shard
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+            // no assets have been downloaded yet
+        }
+
+        log.debug("Found " + objects.size() + " objects in " + ((System.nanoTime() - nanos) / 1_000_000.0) + "ms");
+        return new InstalledAssets(objects, assets.resolve("virtual").resolve("legacy"), resources);
+    }
+
+    /**
+     * @param hash the hash of an asset.
+     * @return {@code true} if the object for the given hash exists.
+     */
+    public boolean hasObject(String hash) {
+        return objects.contains(hash);
+    }
+
+    /**
+     * @param name the name of an asset.
+     * @return {@code true} if the asset exists in {@code assets/virtual/legacy}.
+     * @throws IOException if listing the legacy directory fails.
+     */
+    public synchronized boolean hasLegacy(String name) throws IOException {
+        if (legacyFiles == null) {
+            legacyFiles = list(legacy);
+        }
+
+        return legacyFiles.contains(name);
+    }
+
+    /**
+     * @param name the name of an asset.
+     * @return {@code true} if the asset exists in the resources directory.
+     * @throws IOException if listing the resources directory fails.
+     */
+    public synchronized boolean hasResource(String name) throws IOException {
+        if (resourceFiles == null) {
+            resourceFiles = list(resources);
+        }
+
+        return resourceFiles.contains(name);
+    }
+
+    private static Set<String> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptySet();
+        }
+
+        Set<String> result = new HashSet<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                result.add(directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE; // treated as missing, the asset will be checked normally
+            }
+        });
+
+        return result;
+    }
+
+}
@@ -80,7 +80,7 @@ public class LibraryDownloader {
         boolean checkSize = checkHash || config.getConfig().get(LauncherProperties.LIBRARIES_CHECK_SIZE, true);
         Long expectedSize = checkSize ? size : null;
         String expectedHash = checkHash ? hash : null;
-        downloadService.download(url, to, expectedSize, expectedHash);
+        downloadService.downloadToFile(new URL(url), to, expectedSize, expectedHash);
     }
 
 }
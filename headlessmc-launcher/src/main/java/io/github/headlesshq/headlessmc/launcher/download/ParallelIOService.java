@@ -9,13 +9,23 @@ import io.github.headlesshq.headlessmc.launcher.util.IOConsumer;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Stream;
+import java.util.function.IntFunction;
 
 @CustomLog
 @RequiredArgsConstructor
 public class ParallelIOService {
+    public static final int DEFAULT_CONCURRENCY = 16;
+
     private final List<IOConsumer<String>> tasks = new ArrayList<>();
     private final long delay;
     private final long retries;
@@ -24,6 +34,21 @@ public class ParallelIOService {
 
     @Setter
     private boolean shouldLog = true;
+    /**
+     * The maximum amount of tasks running at the same time.
+     */
+    @Setter
+    private int concurrency = DEFAULT_CONCURRENCY;
+    /**
+     * Uses virtual threads instead of platform threads, if they are available.
+     */
+    @Setter
+    private boolean virtualThreads = false;
+    /**
+     * Creates the executor running the tasks, with the given maximum amount of tasks in flight.
+     */
+    @Setter
+    private IntFunction<ExecutorService> executorFactory = this::createDefaultExecutor;
 
     public void addTask(IOConsumer<String> task) {
         tasks.add(task);
@@ -34,12 +59,16 @@ public class ParallelIOService {
         int total = tasks.size();
         AtomicInteger count = new AtomicInteger();
         AtomicReference<IOException> failed = new AtomicReference<>();
-        Stream<IOConsumer<String>> stream = parallel ? tasks.parallelStream() : tasks.stream();
-        //noinspection ResultOfMethodCallIgnored
-        stream.anyMatch(task -> {
-            run(task, total, count, failed);
-            return failed.get() != null; // end stream early if an asset failed completely
-        });
+        if (parallel && total > 1) {
+            executeParallel(total, count);
+        } else {
+            for (IOConsumer<String> task : tasks) {
+                run(task, total, count, failed);
+                if (failed.get() != null) {
+                    break; // end early if an asset failed completely
+                }
+            }
+        }
 
         nanos = System.nanoTime() - nanos;
         if (shouldLog) {
@@ -62,17 +91,50 @@ public class ParallelIOService {
         return progress;
     }
 
+    @SneakyThrows
+    private void executeParallel(int total, AtomicInteger count) {
+        int maxInFlight = Math.max(1, Math.min(concurrency, total));
+        ExecutorService executor = executorFactory.apply(maxInFlight);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("HeadlessMc-IO-Backoff", false));
+        Execution execution = new Execution(executor, scheduler, total, count);
+        try {
+            for (IOConsumer<String> task : tasks) {
+                execution.schedule(task, null, 0);
+            }
+
+            execution.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted");
+        } catch (ExecutionException e) {
+            throw e.getCause(); // IOException after all retries failed, or something unexpected
+        } finally {
+            // cancels scheduled retries and interrupts tasks still in flight
+            scheduler.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    private ExecutorService createDefaultExecutor(int maxInFlight) {
+        return Executors.newFixedThreadPool(maxInFlight, threadFactory("HeadlessMc-IO", virtualThreads));
+    }
+
+    private long getWait(int attempt) {
+        long wait = this.delay;
+        if (backoff) {
+            wait *= (attempt + 1); // increase wait time
+        }
+
+        return wait;
+    }
+
     @SneakyThrows
     private void run(IOConsumer<String> task, int total, AtomicInteger count, AtomicReference<IOException> failed) {
         String progress = updateProgress(count, total, task);
         IOException exception = null;
         for (int i = 0; i < retries; i++) {
             try {
-                long wait = this.delay;
-                if (backoff) {
-                    wait *= (i + 1); // increase wait time
-                }
-
+                long wait = getWait(i);
                 if (wait > 0L) {
                     Thread.sleep(wait);
                 }
@@ -97,4 +159,102 @@ public class ParallelIOService {
         failed.set(exception);
     }
 
+    private static ThreadFactory threadFactory(String name, boolean virtual) {
+        if (virtual) {
+            try {
+                // Thread.ofVirtual().name(name + "-", 0).factory(), only available on Java 21+
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+                return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                log.debug("Virtual threads are not available, falling back to platform threads: " + e);
+            }
+        }
+
+        AtomicInteger id = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + id.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The state of one parallel {@link #execute()}.
+     * Retries are scheduled on a separate scheduler instead of sleeping,
+     * so that waiting tasks do not occupy one of the threads performing I/O.
+     */
+    private final class Execution {
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final ExecutorService executor;
+        private final ScheduledExecutorService scheduler;
+        private final AtomicInteger remaining;
+        private final AtomicInteger count;
+        private final int total;
+
+        private Execution(ExecutorService executor, ScheduledExecutorService scheduler, int total, AtomicInteger count) {
+            this.executor = executor;
+            this.scheduler = scheduler;
+            this.remaining = new AtomicInteger(total);
+            this.count = count;
+            this.total = total;
+        }
+
+        private void schedule(IOConsumer<String> task, String progress, int attempt) {
+            long wait = getWait(attempt);
+            try {
+                if (wait > 0L) {
+                    scheduler.schedule(() -> submit(task, progress, attempt), wait, TimeUnit.MILLISECONDS);
+                } else {
+                    submit(task, progress, attempt);
+                }
+            } catch (RejectedExecutionException e) {
+                if (!result.isDone()) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void submit(IOConsumer<String> task, String progress, int attempt) {
+            try {
+                executor.execute(() -> attempt(task, progress, attempt));
+            } catch (RejectedExecutionException e) {
+                if (!result.isDone()) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void attempt(IOConsumer<String> task, String progressIn, int attempt) {
+            if (result.isDone()) {
+                return; // another task failed, cancel
+            }
+
+            String progress = progressIn == null ? updateProgress(count, total, task) : progressIn;
+            try {
+                task.accept(progress);
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(null);
+                }
+            } catch (IOException e) {
+                if (result.isDone()) {
+                    return;
+                }
+
+                if (attempt + 1 < retries) {
+                    log.warn(progress + " Failed to download " + task + ", retrying...", e);
+                    schedule(task, progress, attempt + 1);
+                } else {
+                    log.warn(progress + " Failed to download " + task, e);
+                    log.error("Failed to download asset " + task + " after " + retries + " tries!");
+                    result.completeExceptionally(e);
+                }
+            } catch (Throwable throwable) {
+                log.error("Failure in download thread for " + task, throwable);
+                result.completeExceptionally(throwable);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,173 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import io.github.headlesshq.headlessmc.launcher.util.IOUtil;
+import net.lenni0451.commons.httpclient.HttpClient;
+import net.lenni0451.commons.httpclient.HttpResponse;
+import net.lenni0451.commons.httpclient.executor.RequestExecutor;
+import net.lenni0451.commons.httpclient.proxy.SingleProxySelector;
+import net.lenni0451.commons.httpclient.requests.HttpContentRequest;
+import net.lenni0451.commons.httpclient.requests.HttpRequest;
+import net.lenni0451.commons.httpclient.utils.HttpRequestUtils;
+import net.lenni0451.commons.httpclient.utils.IgnoringTrustManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.ssl.HttpsURLConnection;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CookieManager;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * This is just {@link net.lenni0451.commons.httpclient.executor.URLConnectionExecutor}
+ * but the InputStream of a successful response can be passed to a {@link BodyHandler}
+ * instead of being read into memory. In that case the returned {@link HttpResponse} will only
+ * contain a body if the request was not successful.
+ * If a {@link HttpConnectionPool} is given, connections will not be disconnected after the
+ * response has been read, so that they can be reused for following requests to the same host.
+ */
+class StreamingRequestExecutor extends RequestExecutor {
+    private final @Nullable HttpConnectionPool connectionPool;
+    private final @Nullable BodyHandler bodyHandler;
+
+    public StreamingRequestExecutor(HttpClient client, @Nullable HttpConnectionPool connectionPool, @Nullable BodyHandler bodyHandler) {
+        super(client);
+        this.connectionPool = connectionPool;
+        this.bodyHandler = bodyHandler;
+    }
+
+    @Override
+    public @NotNull HttpResponse execute(@NotNull HttpRequest request) throws IOException {
+        if (connectionPool == null) {
+            return executeConnection(request);
+        }
+
+        URL url = request.getURL();
+        connectionPool.acquire(url);
+        try {
+            return executeConnection(request);
+        } finally {
+            connectionPool.release(url);
+        }
+    }
+
+    private HttpResponse executeConnection(HttpRequest request) throws IOException {
+        CookieManager cookieManager = this.getCookieManager(request);
+        HttpURLConnection connection = this.openConnection(request, cookieManager);
+        return this.executeRequest(connection, cookieManager, request);
+    }
+
+    private HttpURLConnection openConnection(final HttpRequest request, final CookieManager cookieManager) throws IOException {
+        SingleProxySelector proxySelector = null;
+        if (this.client.getProxyHandler().isProxySet()) proxySelector = this.client.getProxyHandler().getProxySelector();
+        try {
+            if (proxySelector != null) proxySelector.set();
+            URL url = request.getURL();
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            if (connectionPool != null) {
+                connectionPool.configure(connection);
+            }
+
+            if (this.isIgnoreInvalidSSL(request) && connection instanceof HttpsURLConnection) {
+                HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
+                httpsConnection.setSSLSocketFactory(IgnoringTrustManager.makeIgnoringSSLContext().getSocketFactory());
+            }
+            this.setupConnection(connection, cookieManager, request);
+            connection.connect();
+            return connection;
+        } finally {
+            if (proxySelector != null) proxySelector.reset();
+        }
+    }
+
+    private void setupConnection(HttpURLConnection connection, @Nullable CookieManager cookieManager, HttpRequest request) throws IOException {
+        HttpRequestUtils.setHeaders(connection, this.getHeaders(request, cookieManager));
+        connection.setConnectTimeout(this.client.getConnectTimeout());
+        connection.setReadTimeout(this.client.getReadTimeout());
+        connection.setRequestMethod(request.getMethod());
+        connection.setDoInput(true);
+        connection.setDoOutput(request instanceof HttpContentRequest && ((HttpContentRequest) request).getContent() != null);
+        switch (request.getFollowRedirects()) {
+            case NOT_SET:
+                connection.setInstanceFollowRedirects(this.client.isFollowRedirects());
+                break;
+            case FOLLOW:
+                connection.setInstanceFollowRedirects(true);
+                break;
+            case IGNORE:
+                connection.setInstanceFollowRedirects(false);
+                break;
+        }
+    }
+
+    private HttpResponse executeRequest(HttpURLConnection connection, @Nullable CookieManager cookieManager, HttpRequest request) throws IOException {
+        boolean keepAlive = false;
+        try {
+            if (connection.getDoOutput()) {
+                OutputStream os = connection.getOutputStream();
+                os.write(Objects.requireNonNull(((HttpContentRequest) request).getContent()).getAsBytes());
+                os.flush();
+            }
+
+            byte[] body = new byte[0];
+            int responseCode = connection.getResponseCode();
+            if (responseCode >= 200 && responseCode <= 299) {
+                long contentLength = connection.getHeaderFields().getOrDefault("Content-Length", Collections.emptyList()).stream().map(Long::parseLong).findFirst().orElse(-1L);
+                try (InputStream is = connection.getInputStream()) {
+                    if (bodyHandler == null) {
+                        body = IOUtil.toBytes(is);
+                    } else {
+                        bodyHandler.handle(is, contentLength);
+                    }
+                }
+            } else {
+                InputStream errorStream = responseCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+                if (errorStream != null) {
+                    try (InputStream is = errorStream) {
+                        body = IOUtil.toBytes(is);
+                    }
+                }
+            }
+
+            HttpResponse response = new HttpResponse(
+                    request.getURL(),
+                    responseCode,
+                    body,
+                    connection
+                            .getHeaderFields()
+                            .entrySet()
+                            .stream()
+                            .filter(e -> e.getKey() != null)
+                            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))
+            );
+            HttpRequestUtils.updateCookies(cookieManager, request.getURL(), connection.getHeaderFields());
+            // the body has been read completely and its stream closed, the connection can go back into the keep-alive cache
+            keepAlive = connectionPool != null;
+            return response;
+        } finally {
+            if (!keepAlive) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Consumes the body of a successful response.
+     */
+    @FunctionalInterface
+    interface BodyHandler {
+        /**
+         * @param is the InputStream of the response body, closed by the executor afterwards.
+         * @param contentLength the Content-Length sent by the server or -1 if unknown.
+         * @throws IOException if reading the body fails.
+         */
+        void handle(InputStream is, long contentLength) throws IOException;
+    }
+
+}
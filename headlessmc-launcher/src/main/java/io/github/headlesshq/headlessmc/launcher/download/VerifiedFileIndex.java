@@ -0,0 +1,270 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import lombok.CustomLog;
+import lombok.Data;
+import lombok.Getter;
+import io.github.headlesshq.headlessmc.launcher.files.IOService;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An on-disk index of files whose hash has already been verified.
+ * For every file the size, modification time, file key (the inode on unix systems)
+ * and the verified hash are stored. As long as this metadata does not change,
+ * the file does not need to be hashed again, which makes integrity checks
+ * on every launch cheap.
+ */
+@CustomLog
+public class VerifiedFileIndex {
+    private static final String HEADER = "# HeadlessMc verified files v1";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final IOService ioService = new IOService();
+    private final ChecksumService checksumService;
+    @Getter
+    private final Path file;
+    private volatile boolean loaded;
+    private volatile boolean stopReverify;
+
+    public VerifiedFileIndex(ChecksumService checksumService, Path file) {
+        this.checksumService = checksumService;
+        this.file = file;
+    }
+
+    /**
+     * Checks the integrity of the given file like {@link ChecksumService#checkIntegrity(Path, Long, String)},
+     * but skips hashing if the file has been verified with the same hash before and has not changed since.
+     *
+     * @param path the file to check.
+     * @param size the expected size.
+     * @param hash the expected hash.
+     * @return {@code true} if the file matches the expected size and hash.
+     * @throws IOException if reading the file fails.
+     */
+    public boolean checkIntegrity(Path path, @Nullable Long size, @Nullable String hash) throws IOException {
+        if (hash == null) {
+            return checksumService.checkIntegrity(path, size, null);
+        }
+
+        load();
+        String key = key(path);
+        BasicFileAttributes before = Files.readAttributes(path, BasicFileAttributes.class);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(before, hash)) {
+            return size == null || size == before.size();
+        }
+
+        if (entry != null && entries.remove(key) != null) {
+            dirty.set(true);
+        }
+
+        if (!checksumService.checkIntegrity(path, size, hash)) {
+            return false;
+        }
+
+        BasicFileAttributes after = Files.readAttributes(path, BasicFileAttributes.class);
+        if (Entry.of(hash, before).equals(Entry.of(hash, after))) { // the file has not been modified while hashing
+            put(key, Entry.of(hash, after));
+        }
+
+        return true;
+    }
+
+    /**
+     * Records that the given file has been verified, e.g. because it has just been downloaded and verified.
+     *
+     * @param path the file that has been verified.
+     * @param hash the hash of the file.
+     * @throws IOException if the attributes of the file cannot be read.
+     */
+    public void markVerified(Path path, String hash) throws IOException {
+        load();
+        put(key(path), Entry.of(hash, Files.readAttributes(path, BasicFileAttributes.class)));
+    }
+
+    /**
+     * Hashes every file in the index again, and removes the files whose hash does not match anymore.
+     * Those files will be fully checked again the next time {@link #checkIntegrity(Path, Long, String)} is called.
+     * Stops early when the JVM shuts down during {@link #reverifyInBackground()}.
+     *
+     * @return the amount of files that failed the verification.
+     */
+    public int reverify() {
+        load();
+        int failed = 0;
+        List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+        for (Map.Entry<String, Entry> mapEntry : snapshot) {
+            if (stopReverify) {
+                break;
+            }
+
+            Path path = file.getFileSystem().getPath(mapEntry.getKey());
+            Entry entry = mapEntry.getValue();
+            try {
+                if (!Files.exists(path) || !checksumService.checkIntegrity(path, entry.getSize(), entry.getHash())) {
+                    log.warn("File " + path + " failed re-verification");
+                    entries.remove(mapEntry.getKey(), entry);
+                    dirty.set(true);
+                    failed++;
+                }
+            } catch (IOException e) {
+                log.warn("Failed to re-verify " + path + ": " + e.getMessage());
+                entries.remove(mapEntry.getKey(), entry);
+                dirty.set(true);
+                failed++;
+            }
+        }
+
+        return failed;
+    }
+
+    /**
+     * Runs {@link #reverify()} and {@link #save()} on a daemon thread.
+     * If the JVM shuts down before the thread is done, a shutdown hook stops the re-verification
+     * and waits for the thread to save the files re-verified so far.
+     *
+     * @return the started thread.
+     */
+    public Thread reverifyInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                long nanos = System.nanoTime();
+                int failed = reverify();
+                log.info("Re-verified " + entries.size() + " files in " + ((System.nanoTime() - nanos) / 1_000_000L) + "ms, " + failed + " failed");
+            } finally {
+                try {
+                    save();
+                } catch (IOException e) {
+                    log.error("Failed to save " + file, e);
+                }
+            }
+        }, "HeadlessMc-Reverify");
+        thread.setDaemon(true);
+
+        Thread shutdownHook = new Thread(() -> {
+            stopReverify = true;
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "HeadlessMc-Reverify-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Writes the index to disk, if it has been modified.
+     *
+     * @throws IOException if writing fails.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        // a unique temporary file, other launchers might be saving the index at the same time
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    Entry value = entry.getValue();
+                    writer.write(value.getHash() + "\t" + value.getSize() + "\t" + value.getModified() + "\t" + value.getFileKey() + "\t" + entry.getKey());
+                    writer.newLine();
+                }
+            }
+
+            ioService.move(temp, file);
+        } catch (IOException | RuntimeException e) {
+            dirty.set(true);
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                if (HEADER.equals(line)) {
+                    while ((line = reader.readLine()) != null) {
+                        String[] parts = line.split("\t", 5);
+                        if (parts.length == 5) {
+                            try {
+                                entries.put(parts[4], new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]));
+                            } catch (NumberFormatException e) {
+                                log.debug("Invalid line in " + file + ": " + line);
+                            }
+                        }
+                    }
+                } else {
+                    log.warn("Unknown format of " + file + ", ignoring it");
+                }
+            } catch (NoSuchFileException ignored) {
+                // no files have been verified yet
+            } catch (IOException e) {
+                log.error("Failed to read " + file, e);
+            }
+
+            loaded = true;
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        if (!entry.equals(entries.put(key, entry))) {
+            dirty.set(true);
+        }
+    }
+
+    private static String key(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    @Data
+    private static final class Entry {
+        private final String hash;
+        private final long size;
+        private final long modified;
+        private final String fileKey;
+
+        static Entry of(String hash, BasicFileAttributes attributes) {
+            Object fileKey = attributes.fileKey();
+            return new Entry(hash.toLowerCase(Locale.ENGLISH), attributes.size(), attributes.lastModifiedTime().toMillis(), fileKey == null ? "" : fileKey.toString());
+        }
+
+        boolean matches(BasicFileAttributes attributes, String expectedHash) {
+            return hash.equalsIgnoreCase(expectedHash) && equals(of(hash, attributes));
+        }
+    }
+
+}
@@ -2,8 +2,10 @@ package io.github.headlesshq.headlessmc.launcher.files;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 public class IOService {
     public void writeToFile(Path file, byte[] content) throws IOException {
@@ -13,4 +15,20 @@ public class IOService {
         }
     }
 
+    /**
+     * Moves a file to the given destination, replacing it.
+     * If possible the move is atomic, so that other readers will never see a partially written file.
+     *
+     * @param from the file to move.
+     * @param to the destination.
+     * @throws IOException if moving the file fails.
+     */
+    public void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
 }
@@ -3,11 +3,13 @@ package io.github.headlesshq.headlessmc.launcher.instrumentation;
 import lombok.Cleanup;
 import lombok.CustomLog;
 import lombok.RequiredArgsConstructor;
+import io.github.headlesshq.headlessmc.launcher.Launcher;
 import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.tree.ClassNode;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @CustomLog
 @RequiredArgsConstructor
@@ -46,6 +48,11 @@ public abstract class AbstractClassTransformer extends AbstractTransformer {
         return new EntryClassWriter(entry);
     }
 
+    @Override
+    public boolean matchesEntry(String name) {
+        return matches(new EntryStream(null, Collections.emptyList(), () -> name));
+    }
+
     protected boolean matches(EntryStream stream) {
         if (stream.getEntry().getName().endsWith(".class")) {
             return stream.getEntry()
@@ -59,4 +66,9 @@ public abstract class AbstractClassTransformer extends AbstractTransformer {
 
     protected abstract void transform(ClassNode cn);
 
+    @Override
+    public String getCacheKey() {
+        return getClass().getName() + "(" + className + "):" + Launcher.VERSION + ":" + ImplementationHash.of(getClass());
+    }
+
 }
@@ -5,7 +5,7 @@ import lombok.Setter;
 
 public abstract class AbstractTransformer implements Transformer {
     @Setter(AccessLevel.PROTECTED)
-    protected boolean run;
+    protected volatile boolean run;
 
     @Override
     public boolean hasRun() {
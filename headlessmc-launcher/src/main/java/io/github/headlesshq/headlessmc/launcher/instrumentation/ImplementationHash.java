@@ -0,0 +1,85 @@
+package io.github.headlesshq.headlessmc.launcher.instrumentation;
+
+import lombok.CustomLog;
+import lombok.experimental.UtilityClass;
+import io.github.headlesshq.headlessmc.launcher.download.ChecksumService;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifies the build a class has been loaded from, so that the {@link InstrumentationCache}
+ * does not serve jars transformed by another build of a {@link Transformer}.
+ * The launcher version alone is not enough, snapshot and development builds share it.
+ */
+@CustomLog
+@UtilityClass
+public class ImplementationHash {
+    private static final Map<String, String> HASHES = new ConcurrentHashMap<>();
+
+    /**
+     * @param type the class to identify.
+     * @return the SHA-1 of the jar the given class has been loaded from,
+     * or of the class file itself if it has not been loaded from a jar.
+     */
+    public static String of(Class<?> type) {
+        Path jar = getJar(type);
+        if (jar != null) {
+            return HASHES.computeIfAbsent(jar.toString(), k -> hash(type, jar));
+        }
+
+        return HASHES.computeIfAbsent(type.getName(), k -> hash(type, null));
+    }
+
+    private static String hash(Class<?> type, @Nullable Path jar) {
+        try (InputStream is = jar == null
+            ? type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")
+            : Files.newInputStream(jar)) {
+            if (is == null) {
+                throw new IOException("Failed to find class file of " + type.getName());
+            }
+
+            ChecksumService checksumService = new ChecksumService();
+            MessageDigest digest = checksumService.getHashFunction();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            return checksumService.toHashString(digest.digest());
+        } catch (IOException e) {
+            // the launcher version still separates releases
+            log.warn("Failed to hash implementation of " + type.getName() + ": " + e);
+            return "unknown";
+        }
+    }
+
+    private static @Nullable Path getJar(Class<?> type) {
+        try {
+            CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+            URL location = codeSource == null ? null : codeSource.getLocation();
+            if (location != null && "file".equals(location.getProtocol())) {
+                Path path = Paths.get(location.toURI());
+                if (Files.isRegularFile(path)) {
+                    return path;
+                }
+            }
+        } catch (URISyntaxException | SecurityException | IllegalArgumentException e) {
+            log.debug("Failed to find jar of " + type.getName() + ": " + e);
+        }
+
+        return null;
+    }
+
+}
@@ -2,25 +2,77 @@ package io.github.headlesshq.headlessmc.launcher.instrumentation;
 
 import lombok.Cleanup;
 import lombok.CustomLog;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.val;
 import io.github.headlesshq.headlessmc.launcher.util.IOUtil;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 import java.util.stream.Collectors;
 
 @CustomLog
 @RequiredArgsConstructor
 public class Instrumentation {
+    private final Set<Transformer> cachedTransformers = new HashSet<>();
     private final List<Transformer> transformers;
     private final File base;
+    /**
+     * Persistently caches transformed jars, if set.
+     */
+    @Setter
+    private @Nullable InstrumentationCache cache;
+    /**
+     * The amount of threads transforming the classes of a jar.
+     * If larger than 1, {@link Transformer#transform(EntryStream)} gets called concurrently for the entries of a jar.
+     */
+    @Setter
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * If entries no transformer matches are written uncompressed.
+     * That saves deflating them again, but makes the jars larger, e.g. natives jars, which are mostly untouched.
+     */
+    @Setter
+    private boolean storeUntransformed;
 
     public List<String> instrument(List<Target> targetsIn) throws IOException {
+        AtomicInteger id = new AtomicInteger();
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "HeadlessMc-Instrumentation-" + id.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        try {
+            Executor transformExecutor = executor == null ? Runnable::run : executor;
+            return instrument(targetsIn, transformExecutor);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private List<String> instrument(List<Target> targetsIn, Executor executor) throws IOException {
         log.debug("Instrumenting Classpath");
         List<Target> targets = targetsIn;
         if (transformers.isEmpty()) {
@@ -43,7 +95,7 @@ public class Instrumentation {
                 .filter(transformer -> transformer.matches(target))
                 .collect(Collectors.toList());
 
-            val url = runTransformers(target, targets, targetTransformers);
+            val url = runTransformers(target, targets, targetTransformers, executor);
             result.add(url);
         }
 
@@ -58,54 +110,158 @@ public class Instrumentation {
     }
 
     // TODO: this is too long and kinda ugly
-    private String runTransformers(Target target, List<Target> targets, List<Transformer> transformers) throws IOException {
+    private String runTransformers(Target target, List<Target> targets, List<Transformer> transformers, Executor executor) throws IOException {
         if (transformers.isEmpty()) {
             return target.getPath();
         }
 
         log.debug("Transforming " + target.getPath());
-        @Cleanup
-        val jar = target.toJar();
-        val file = base.getAbsolutePath() + File.separator + new File(jar.getName()).getName();
+        val file = base.getAbsolutePath() + File.separator + new File(target.getPath()).getName();
         File targetJar = new File(file);
         if (targetJar.exists()) {
             log.warning(targetJar + " already exists!");
             return file;
         }
 
+        String key = null;
+        if (cache != null) {
+            key = cache.getKey(target, transformers);
+            if (cache.restore(key, targetJar)) {
+                cachedTransformers.addAll(transformers);
+                return file;
+            }
+        }
+
+        transform(target, targets, transformers, targetJar, executor);
+        if (cache != null) {
+            try {
+                cache.store(key, targetJar);
+            } catch (IOException e) {
+                log.warn("Failed to cache " + targetJar.getName() + ": " + e.getMessage());
+            }
+        }
+
+        return file;
+    }
+
+    /**
+     * Transforms the given target into the given file.
+     * Only the transformers that {@link Transformer#matchesEntry(String) match} an entry get to see it.
+     * Entries no transformer matches are copied without being transformed, and without being compressed again
+     * if {@link #storeUntransformed} is set. The others are transformed on the given executor,
+     * but written in the same order as in the original jar.
+     */
+    private void transform(Target target, List<Target> targets, List<Transformer> transformers, File targetJar, Executor executor) throws IOException {
+        @Cleanup
+        val jar = target.toJar();
         @Cleanup
         val jos = IOUtil.jarOutput(targetJar);
+        // limits the amount of transformed entries kept in memory while waiting for an earlier entry
+        int maxPending = Math.max(1, threads) * 4;
+        Deque<PendingEntry> pending = new ArrayDeque<>();
         for (Enumeration<JarEntry> e = jar.entries(); e.hasMoreElements(); ) {
             val next = e.nextElement();
-            @Cleanup
-            val is = jar.getInputStream(next);
-            EntryStream stream = new EntryStream(is, targets, next::getName);
+            val matching = transformers
+                .stream()
+                .filter(transformer -> transformer.matchesEntry(next.getName()))
+                .collect(Collectors.toList());
+
+            FutureTask<byte[]> task = null;
+            if (!matching.isEmpty()) {
+                task = new FutureTask<>(() -> transformEntry(jar, next, targets, matching));
+                executor.execute(task);
+            }
+
+            pending.add(new PendingEntry(next, task));
+            while (pending.size() > maxPending) {
+                write(jar, jos, pending.poll());
+            }
+        }
 
-            for (Transformer transformer : transformers) {
-                val stream2 = transformer.transform(stream);
-                if (stream2.getStream() != stream.getStream()) {
-                    stream.getStream().close();
-                }
+        while (!pending.isEmpty()) {
+            write(jar, jos, pending.poll());
+        }
+    }
 
-                stream = stream2;
+    private byte @Nullable [] transformEntry(JarFile jar, JarEntry entry, List<Target> targets, List<Transformer> transformers) throws IOException {
+        @Cleanup
+        val is = jar.getInputStream(entry);
+        EntryStream stream = new EntryStream(is, targets, entry::getName);
+        for (Transformer transformer : transformers) {
+            val stream2 = transformer.transform(stream);
+            if (stream2.getStream() != stream.getStream()) {
+                stream.getStream().close();
             }
 
-            if (!stream.isSkipped()) {
-                jos.putNextEntry(new JarEntry(next.getName()));
-                IOUtil.copy(stream.getStream(), jos);
-                jos.flush();
-                jos.closeEntry();
+            stream = stream2;
+        }
+
+        if (stream.isSkipped()) {
+            return null;
+        }
+
+        return IOUtil.toBytes(stream.getStream());
+    }
+
+    private void write(JarFile jar, JarOutputStream jos, PendingEntry pendingEntry) throws IOException {
+        JarEntry entry = pendingEntry.getEntry();
+        if (pendingEntry.getTask() == null) {
+            JarEntry copy = new JarEntry(entry.getName());
+            if (storeUntransformed && entry.getSize() >= 0 && entry.getCrc() >= 0) {
+                // we cannot copy the compressed data with java.util.zip, but storing it is much cheaper than deflating it again
+                copy.setMethod(ZipEntry.STORED);
+                copy.setSize(entry.getSize());
+                copy.setCompressedSize(entry.getSize());
+                copy.setCrc(entry.getCrc());
             }
+
+            jos.putNextEntry(copy);
+            try (val is = jar.getInputStream(entry)) {
+                IOUtil.copy(is, jos);
+            }
+
+            jos.closeEntry();
+            return;
         }
 
-        return file;
+        byte[] bytes = getResult(pendingEntry.getTask());
+        if (bytes != null) {
+            jos.putNextEntry(new JarEntry(entry.getName()));
+            jos.write(bytes);
+            jos.closeEntry();
+        }
+    }
+
+    private byte @Nullable [] getResult(FutureTask<byte[]> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while transforming", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw new IOException(e.getCause());
+        }
     }
 
     private String getInactiveTransformers(List<Transformer> transformers) {
         return transformers.stream()
-                           .filter(t -> !t.hasRun())
+                           .filter(t -> !t.hasRun() && !cachedTransformers.contains(t))
                            .map(t -> t.getClass().getName())
                            .collect(Collectors.joining(","));
     }
 
+    @Data
+    private static final class PendingEntry {
+        private final JarEntry entry;
+        private final @Nullable FutureTask<byte[]> task;
+    }
+
 }
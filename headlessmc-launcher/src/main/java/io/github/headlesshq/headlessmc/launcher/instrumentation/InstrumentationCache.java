@@ -0,0 +1,185 @@
+package io.github.headlesshq.headlessmc.launcher.instrumentation;
+
+import lombok.CustomLog;
+import lombok.Getter;
+import io.github.headlesshq.headlessmc.launcher.download.ChecksumService;
+import io.github.headlesshq.headlessmc.launcher.files.FileManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A persistent cache for jars produced by the {@link Instrumentation}.
+ * Entries are addressed by the SHA-1 of the input jar and the ordered {@link Transformer#getCacheKey()}s
+ * of the transformers that ran on it, so that repeated launches of the same version
+ * do not have to transform the same jars again.
+ * Every entry is a directory containing the jar under its original name.
+ * The last modified time of that directory is updated on every hit,
+ * and the least recently used entries are evicted once the cache grows above its maximum size.
+ */
+@CustomLog
+public class InstrumentationCache {
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{40}");
+
+    private final ChecksumService checksumService;
+    private final FileManager fileManager;
+    @Getter
+    private final long maxSize;
+
+    /**
+     * Creates a new InstrumentationCache.
+     *
+     * @param checksumService the service used to hash input jars.
+     * @param fileManager the directory to store the cache in.
+     * @param maxSize the maximum size of all cached jars together, in bytes.
+     */
+    public InstrumentationCache(ChecksumService checksumService, FileManager fileManager, long maxSize) {
+        this.checksumService = checksumService;
+        this.fileManager = fileManager;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Calculates the key for the given jar transformed by the given transformers.
+     *
+     * @param target the jar to transform.
+     * @param transformers the transformers that will transform the jar, in order.
+     * @return the key for the transformed jar.
+     * @throws IOException if reading the jar fails.
+     */
+    public String getKey(Target target, List<Transformer> transformers) throws IOException {
+        MessageDigest digest = checksumService.getHashFunction();
+        try (InputStream is = Files.newInputStream(new File(target.getPath()).toPath())) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        for (Transformer transformer : transformers) {
+            digest.update(("\n" + transformer.getCacheKey()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return checksumService.toHashString(digest.digest());
+    }
+
+    /**
+     * Places the cached jar for the given key at the given location, if it exists.
+     *
+     * @param key the key returned by {@link #getKey(Target, List)}.
+     * @param to the file to create. Its name has to be the name of the cached jar.
+     * @return {@code true} if the jar was cached.
+     * @throws IOException if creating the file fails.
+     */
+    public boolean restore(String key, File to) throws IOException {
+        Path entry = getEntry(key);
+        Path jar = entry.resolve(to.getName());
+        if (!Files.isRegularFile(jar)) {
+            return false;
+        }
+
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        link(jar, to.toPath());
+        log.debug("Restored " + to.getName() + " from instrumentation cache " + key);
+        return true;
+    }
+
+    /**
+     * Stores the given transformed jar in the cache and evicts old entries if the cache got too large.
+     *
+     * @param key the key returned by {@link #getKey(Target, List)}.
+     * @param jar the transformed jar.
+     * @throws IOException if storing the jar fails.
+     */
+    public void store(String key, File jar) throws IOException {
+        Path entry = getEntry(key);
+        if (Files.exists(entry)) {
+            return;
+        }
+
+        // prepare the entry in a temporary directory first, in case another process stores the same jar
+        Path temp = Files.createTempDirectory(fileManager.getBase().toPath(), key + ".");
+        try {
+            link(jar.toPath(), temp.resolve(jar.getName()));
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Stored " + jar.getName() + " in instrumentation cache " + key);
+        } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+            log.debug("Instrumentation cache " + key + " has already been stored");
+        } finally {
+            if (Files.exists(temp)) {
+                fileManager.delete(temp.toFile());
+            }
+        }
+
+        evict();
+    }
+
+    /**
+     * Deletes the least recently used entries, until the cache is smaller than {@link #getMaxSize()}.
+     *
+     * @throws IOException if listing the entries fails.
+     */
+    public void evict() throws IOException {
+        List<File> entries = new ArrayList<>();
+        long size = 0L;
+        for (File file : fileManager.listFiles()) {
+            if (file.isDirectory() && KEY.matcher(file.getName()).matches()) {
+                entries.add(file);
+                size += size(file);
+            }
+        }
+
+        entries.sort(Comparator.comparingLong(File::lastModified));
+        for (File entry : entries) {
+            if (size <= maxSize) {
+                break;
+            }
+
+            long entrySize = size(entry);
+            try {
+                log.debug("Evicting instrumentation cache " + entry.getName());
+                fileManager.delete(entry);
+                size -= entrySize;
+            } catch (IOException e) {
+                log.warn("Failed to evict instrumentation cache " + entry.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private Path getEntry(String key) {
+        return fileManager.getBase().toPath().resolve(key);
+    }
+
+    private long size(File entry) {
+        long size = 0L;
+        for (File file : fileManager.listFiles(entry)) {
+            size += file.length();
+        }
+
+        return size;
+    }
+
+    private static void link(Path existing, Path link) throws IOException {
+        try {
+            Files.createLink(link, existing);
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            log.debug("Failed to link " + link + " to " + existing + ", copying: " + e.getMessage());
+            Files.copy(existing, link, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+}
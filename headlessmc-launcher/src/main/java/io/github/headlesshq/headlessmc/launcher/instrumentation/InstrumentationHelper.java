@@ -3,6 +3,7 @@ package io.github.headlesshq.headlessmc.launcher.instrumentation;
 import lombok.CustomLog;
 import lombok.experimental.UtilityClass;
 import lombok.val;
+import io.github.headlesshq.headlessmc.launcher.LauncherProperties;
 import io.github.headlesshq.headlessmc.launcher.instrumentation.log4j.Patchers;
 import io.github.headlesshq.headlessmc.launcher.instrumentation.lwjgl.HmcLwjglTransformer;
 import io.github.headlesshq.headlessmc.launcher.instrumentation.modlauncher.BootstrapLauncherTransformer;
@@ -20,7 +21,9 @@ public class InstrumentationHelper {
     public static Instrumentation create(LaunchOptions options) {
         val transformers = new ArrayList<Transformer>(7);
         if (options.isLwjgl()) {
-            transformers.add(new HmcLwjglTransformer());
+            val config = options.getLauncher().getConfig();
+            transformers.add(new HmcLwjglTransformer(config.get(LauncherProperties.LWJGL_INVOKE_DYNAMIC, false),
+                                                     config.get(LauncherProperties.LWJGL_CONSTANT_STUBS, false)));
             transformers.add(new ResourceExtractor(options.getFiles(), LWJGL_JAR));
         }
 
@@ -44,7 +47,16 @@ public class InstrumentationHelper {
             transformers.add(new BootstrapLauncherTransformer());
         }
 
-        return new Instrumentation(transformers, options.getFiles().getBase());
+        val instrumentation = new Instrumentation(transformers, options.getFiles().getBase());
+        val launcher = options.getLauncher();
+        instrumentation.setStoreUntransformed(launcher.getConfig().get(LauncherProperties.INSTRUMENTATION_STORE, false));
+        if (launcher.getConfig().get(LauncherProperties.INSTRUMENTATION_CACHE, true)) {
+            long maxSize = launcher.getConfig().get(LauncherProperties.INSTRUMENTATION_CACHE_SIZE, 512L) * 1_000_000L;
+            val fileManager = launcher.getFileManager().createRelative("cache", "instrumented");
+            instrumentation.setCache(new InstrumentationCache(launcher.getSha1Service(), fileManager, maxSize));
+        }
+
+        return instrumentation;
     }
 
 }
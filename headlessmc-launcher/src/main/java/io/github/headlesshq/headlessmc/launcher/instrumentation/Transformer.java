@@ -1,5 +1,7 @@
 package io.github.headlesshq.headlessmc.launcher.instrumentation;
 
+import io.github.headlesshq.headlessmc.launcher.Launcher;
+
 import java.io.IOException;
 import java.util.List;
 
@@ -14,8 +16,38 @@ public interface Transformer {
         return false;
     }
 
+    /**
+     * Decides by the name of a jar entry, before it gets read, if {@link #transform(EntryStream)} might transform it.
+     * Entries that no transformer matches are copied without being read by any transformer.
+     *
+     * @param name the name of the entry.
+     * @return {@code true} if this transformer needs to see the entry.
+     */
+    default boolean matchesEntry(String name) {
+        return true;
+    }
+
+    /**
+     * Transforms an entry of a jar. The {@link Instrumentation} calls this concurrently for multiple entries
+     * of the same jar, so implementations have to be thread-safe.
+     *
+     * @param stream the entry to transform.
+     * @return the transformed entry, or the given stream if nothing has been transformed.
+     * @throws IOException if reading or transforming the entry fails.
+     */
     default EntryStream transform(EntryStream stream) throws IOException {
         return stream;
     }
 
+    /**
+     * Identifies the output of this transformer for the {@link InstrumentationCache}.
+     * Has to change whenever this transformer would transform a jar differently,
+     * so transformers depending on a configuration have to add it to their key.
+     *
+     * @return the id, version and {@link ImplementationHash} of this transformer.
+     */
+    default String getCacheKey() {
+        return getClass().getName() + ":" + Launcher.VERSION + ":" + ImplementationHash.of(getClass());
+    }
+
 }
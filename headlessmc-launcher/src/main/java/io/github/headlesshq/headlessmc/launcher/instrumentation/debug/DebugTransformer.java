@@ -77,6 +77,11 @@ public class DebugTransformer extends AbstractClassTransformer {
         }
     }
 
+    @Override
+    public String getCacheKey() {
+        return super.getCacheKey() + ":" + debugTime + ":" + enabled + ":" + onlyCurrentCall;
+    }
+
     @Override
     protected boolean matches(EntryStream stream) {
         return true;
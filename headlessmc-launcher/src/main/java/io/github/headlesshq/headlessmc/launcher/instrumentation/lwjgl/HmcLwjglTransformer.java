@@ -2,19 +2,39 @@ package io.github.headlesshq.headlessmc.launcher.instrumentation.lwjgl;
 
 import io.github.headlesshq.headlessmc.launcher.instrumentation.AbstractClassTransformer;
 import io.github.headlesshq.headlessmc.launcher.instrumentation.EntryStream;
+import io.github.headlesshq.headlessmc.launcher.instrumentation.ImplementationHash;
 import io.github.headlesshq.headlessmc.launcher.instrumentation.InstrumentationHelper;
 import io.github.headlesshq.headlessmc.launcher.instrumentation.Target;
 import io.github.headlesshq.headlessmc.lwjgl.api.Transformer;
+import io.github.headlesshq.headlessmc.lwjgl.redirections.LwjglRedirections;
 import io.github.headlesshq.headlessmc.lwjgl.transformer.LwjglTransformer;
 import org.objectweb.asm.tree.ClassNode;
 
 import java.util.Locale;
 
 public class HmcLwjglTransformer extends AbstractClassTransformer {
-    private final Transformer transformer = new LwjglTransformer();
+    private final Transformer transformer;
+    private final boolean invokeDynamic;
+    private final boolean constantStubs;
 
     public HmcLwjglTransformer() {
+        this(false, false);
+    }
+
+    public HmcLwjglTransformer(boolean invokeDynamic, boolean constantStubs) {
         super(null);
+        this.transformer = new LwjglTransformer(invokeDynamic, constantStubs);
+        this.invokeDynamic = invokeDynamic;
+        this.constantStubs = constantStubs;
+    }
+
+    @Override
+    public String getCacheKey() {
+        // stubs depend on the built-in redirections, jars stubbed by an older version have to be transformed again
+        return super.getCacheKey()
+            + ":" + ImplementationHash.of(LwjglTransformer.class)
+            + (invokeDynamic ? ":invokedynamic" : "")
+            + (constantStubs ? ":stubs-" + Integer.toHexString(LwjglRedirections.getRedirectedDescriptors().hashCode()) : "");
     }
 
     @Override
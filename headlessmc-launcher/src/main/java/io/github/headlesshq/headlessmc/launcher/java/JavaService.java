@@ -4,6 +4,7 @@ import lombok.CustomLog;
 import lombok.Getter;
 import io.github.headlesshq.headlessmc.java.Java;
 import io.github.headlesshq.headlessmc.java.JavaScanner;
+import io.github.headlesshq.headlessmc.java.JavaVersionCache;
 import io.github.headlesshq.headlessmc.java.JavaVersionFinder;
 import io.github.headlesshq.headlessmc.java.JavaVersionParser;
 import io.github.headlesshq.headlessmc.java.download.JavaDownloadRequest;
@@ -20,8 +21,12 @@ import org.jetbrains.annotations.VisibleForTesting;
 import java.io.IOError;
 import java.io.IOException;
 import java.nio.file.InvalidPathException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 @CustomLog
@@ -30,6 +35,7 @@ public class JavaService extends LazyService<Java> implements JavaScanner {
     @Getter
     private final JavaVersionParser parser;
     private final ConfigService cfg;
+    private final @Nullable JavaVersionCache cache;
     private final OS os;
 
     private volatile Java current;
@@ -40,35 +46,33 @@ public class JavaService extends LazyService<Java> implements JavaScanner {
         boolean addFilePermissions = os.getType() == OS.Type.LINUX || os.getType() == OS.Type.OSX;
         addFilePermissions &= cfg.getConfig().get(LauncherProperties.JAVA_ALWAYS_ADD_FILE_PERMISSIONS, false);
         this.parser = new JavaVersionParser(addFilePermissions);
+        if (cfg.getConfig().get(LauncherProperties.JAVA_VERSION_CACHE, true)) {
+            this.cache = new JavaVersionCache(cfg.getFileManager().getDir("cache").toPath().resolve("java-versions.txt"));
+            this.parser.setCache(cache);
+        } else {
+            this.cache = null;
+        }
     }
 
     @Override
     protected Set<Java> update() {
         long nanos = System.nanoTime();
         String[] array = cfg.getConfig().get(LauncherProperties.JAVA, new String[0]);
-        Set<Java> newVersions = new LinkedHashSet<>((int) (array.length * 1.5));
-        for (String path : array) {
-            Java java = scanJava(path);
-            if (java != null) {
-                newVersions.add(java);
-            }
-        }
-
-        JavaScanner javaScanner = JavaScanner.of(parser);
+        List<String> executables = new ArrayList<>(Arrays.asList(array));
         JavaVersionFinder javaVersionFinder = new JavaVersionFinder();
-        newVersions.addAll(javaVersionFinder.checkDirectory(javaScanner, cfg.getFileManager().getDir("java").toPath(), os));
-
+        executables.addAll(javaVersionFinder.findExecutables(cfg.getFileManager().getDir("java").toPath(), os, Collections.emptyList()));
         if (System.getenv("JAVA_HOME") != null) {
             try {
-                Java java = scanJava(PathUtil.stripQuotes(System.getenv("JAVA_HOME")).resolve("bin").resolve("java").toAbsolutePath().toString());
-                if (java != null) {
-                    newVersions.add(java);
-                }
+                executables.add(PathUtil.stripQuotes(System.getenv("JAVA_HOME")).resolve("bin").resolve("java").toAbsolutePath().toString());
             } catch (InvalidPathException e) {
                 log.error(e);
             }
         }
 
+        // every executable whose version is not cached could start a process, so scan them concurrently
+        Set<Java> newVersions = new LinkedHashSet<>(javaVersionFinder.scan(this, executables));
+        saveCache();
+
         Java current = getCurrent();
         if (current != null && !current.isInvalid() && cfg.getConfig().get(LauncherProperties.USE_CURRENT_JAVA, true)) {
             newVersions.add(current);
@@ -82,28 +86,23 @@ public class JavaService extends LazyService<Java> implements JavaScanner {
     public void refreshHeadlessMcJavaVersions() {
         Set<Java> versions = new HashSet<>(contents);
         boolean addFilePermissions = os.getType() == OS.Type.LINUX || os.getType() == OS.Type.OSX;
-        JavaScanner javaScanner = JavaScanner.of(new JavaVersionParser(addFilePermissions));
+        JavaVersionParser parser = new JavaVersionParser(addFilePermissions);
+        parser.setCache(cache);
+        JavaScanner javaScanner = JavaScanner.of(parser);
         JavaVersionFinder javaVersionFinder = new JavaVersionFinder();
         versions.addAll(javaVersionFinder.checkDirectory(javaScanner, cfg.getFileManager().getDir("java").toPath(), os, versions));
+        saveCache();
         contents = versions;
     }
 
     public @Nullable Java scanJava(String path) {
-        log.debug("Reading Java version at path: " + path);
-        if (path.trim().isEmpty()) {
-            return null;
-        }
+        return scanJava(log, path);
+    }
 
-        try {
-            int majorVersion = parser.parseVersionCommand(path);
-            Java java = new Java(path.replace("\\", "/"), majorVersion);
-            log.debug("Found Java: " + java);
-            return java;
-        } catch (IOException e) {
-            log.warn("Couldn't parse Java Version for path " + path, e);
+    private void saveCache() {
+        if (cache != null) {
+            cache.save();
         }
-
-        return null;
     }
 
     public @Nullable Java findBestVersion(Integer version) {
@@ -0,0 +1,98 @@
+package io.github.headlesshq.headlessmc.launcher.launch;
+
+import lombok.Data;
+import io.github.headlesshq.headlessmc.launcher.auth.AuthException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Measures how long the phases of a launch took.
+ * Phases belong to a stage, the phases of a stage run one after another,
+ * while different stages can run concurrently.
+ * The stage that finished last is the critical path of the launch.
+ */
+public class LaunchTimings {
+    private final List<Phase> phases = new ArrayList<>();
+    private final long start = System.nanoTime();
+
+    /**
+     * Runs the given phase and records how long it took, even if it fails.
+     *
+     * @param stage the stage the phase belongs to.
+     * @param name the name of the phase.
+     * @param phase the phase to run.
+     * @return the result of the phase.
+     * @param <T> the type of result returned by the phase.
+     */
+    public <T> T time(String stage, String name, Task<T> phase) throws IOException, LaunchException, AuthException {
+        long phaseStart = System.nanoTime();
+        try {
+            return phase.run();
+        } finally {
+            long end = System.nanoTime();
+            synchronized (phases) {
+                phases.add(new Phase(stage, name, phaseStart - start, end - start));
+            }
+        }
+    }
+
+    /**
+     * @return the stage whose last phase finished last, or {@code null} if no phase has been recorded.
+     */
+    public String getCriticalStage() {
+        synchronized (phases) {
+            return phases.stream().max(Comparator.comparingLong(Phase::getEnd)).map(Phase::getStage).orElse(null);
+        }
+    }
+
+    /**
+     * @return a report listing every phase, the total wall time and the sum of all phases.
+     */
+    public String report() {
+        List<Phase> sorted;
+        synchronized (phases) {
+            sorted = new ArrayList<>(phases);
+        }
+
+        sorted.sort(Comparator.comparingLong(Phase::getStart));
+        String critical = getCriticalStage();
+        long wall = sorted.stream().mapToLong(Phase::getEnd).max().orElse(0L);
+        long sum = sorted.stream().mapToLong(Phase::getDuration).sum();
+        StringBuilder builder = new StringBuilder("Launch took ").append(millis(wall))
+                .append("ms, sum of all phases ").append(millis(sum)).append("ms, critical path: ").append(critical);
+        for (Phase phase : sorted) {
+            builder.append(System.lineSeparator())
+                   .append(phase.getStage().equals(critical) ? " * " : "   ")
+                   .append(String.format("%-10s %-22s %6dms (%dms - %dms)",
+                                         phase.getStage(), phase.getName(), millis(phase.getDuration()),
+                                         millis(phase.getStart()), millis(phase.getEnd())));
+        }
+
+        return builder.toString();
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+
+    @FunctionalInterface
+    public interface Task<T> {
+        T run() throws IOException, LaunchException, AuthException;
+    }
+
+    @Data
+    private static final class Phase {
+        private final String stage;
+        private final String name;
+        private final long start;
+        private final long end;
+
+        long getDuration() {
+            return end - start;
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package io.github.headlesshq.headlessmc.launcher.launch;
 
+import lombok.AccessLevel;
 import lombok.CustomLog;
+import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
@@ -10,6 +12,8 @@ import io.github.headlesshq.headlessmc.launcher.auth.AuthException;
 import io.github.headlesshq.headlessmc.launcher.download.AssetsDownloader;
 import io.github.headlesshq.headlessmc.launcher.download.DownloadService;
 import io.github.headlesshq.headlessmc.launcher.download.LibraryDownloader;
+import io.github.headlesshq.headlessmc.launcher.download.ParallelIOService;
+import io.github.headlesshq.headlessmc.launcher.download.VerifiedFileIndex;
 import io.github.headlesshq.headlessmc.launcher.files.FileManager;
 import io.github.headlesshq.headlessmc.launcher.files.LauncherConfig;
 import io.github.headlesshq.headlessmc.launcher.instrumentation.Instrumentation;
@@ -21,9 +25,13 @@ import io.github.headlesshq.headlessmc.launcher.specifics.VersionSpecificModMana
 import io.github.headlesshq.headlessmc.launcher.specifics.VersionSpecificModRepository;
 import io.github.headlesshq.headlessmc.launcher.specifics.VersionSpecificMods;
 import io.github.headlesshq.headlessmc.launcher.version.Features;
+import io.github.headlesshq.headlessmc.launcher.version.Library;
+import io.github.headlesshq.headlessmc.launcher.version.NativeExtractionCache;
 import io.github.headlesshq.headlessmc.launcher.version.Rule;
 import io.github.headlesshq.headlessmc.launcher.version.Version;
 import io.github.headlesshq.headlessmc.launcher.version.VersionExecutable;
+import io.github.headlesshq.headlessmc.launcher.version.VersionParseException;
+import io.github.headlesshq.headlessmc.launcher.version.VersionUtil;
 import io.github.headlesshq.headlessmc.os.OS;
 import org.jetbrains.annotations.Nullable;
 
@@ -35,6 +43,12 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipFile;
 
 @Getter
@@ -44,6 +58,9 @@ public class ProcessFactory {
     private final DownloadService downloadService;
     private final LauncherConfig config;
     private final OS os;
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean progressBarActive = new AtomicBoolean();
+    private @Nullable VerifiedFileIndex verifiedFileIndex;
 
     public @Nullable Process run(LaunchOptions options) throws LaunchException, AuthException, IOException {
         val instrumentation = InstrumentationHelper.create(options);
@@ -53,6 +70,12 @@ public class ProcessFactory {
     public @Nullable Process run(LaunchOptions options, Instrumentation instrumentation) throws IOException, LaunchException, AuthException {
         val launcher = options.getLauncher();
 
+        try {
+            VersionUtil.load(options.getVersion());
+        } catch (VersionParseException e) {
+            throw new LaunchException(e.getMessage(), e);
+        }
+
         log.debug("Creating version merger");
         val version = new VersionMerger(options.getVersion());
         if (version.getArguments() == null) {
@@ -61,28 +84,79 @@ public class ProcessFactory {
                     " didn't contain arguments.");
         }
 
-        log.debug("Creating extraction directory");
-        val natives = options.getFiles().createRelative("extracted");
-        val targets = processLibraries(options, version, natives);
-        addGameJar(version, targets);
-
-        List<String> classpath = instrumentation.instrument(targets);
-        if (options.isRuntime()) {
-            moveRuntimeJarToFirstPlace(classpath);
-        }
-
-        log.debug("Building command");
-        val commandBuilder = configureCommandBuilder(options, version, classpath, natives).build();
-
-        val command = commandBuilder.build();
-        downloadAssets(options, config.getMcFiles(), version);
-        debugCommand(command, commandBuilder);
-
+        val timings = new LaunchTimings();
         val dir = new File(launcher.getConfig().get(LauncherProperties.GAME_DIR, launcher.getGameDir(version).getPath()));
         log.info("Game will run in " + dir);
         //noinspection ResultOfMethodCallIgnored
         dir.mkdirs();
-        autoDownloadSpecifics(options, version, dir.toPath());
+
+        // assets and specifics do not depend on the classpath, in pipeline mode they run alongside it
+        boolean pipeline = config.getConfig().getConfig().get(LauncherProperties.LAUNCH_PIPELINE, false);
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = pipeline ? Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "HeadlessMc-Launch-Pipeline-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        List<String> command;
+        JavaLaunchCommandBuilder commandBuilder;
+        try {
+            Future<?> assets = null;
+            Future<?> specifics = null;
+            if (executor != null) {
+                assets = executor.submit(() -> timings.time("assets", "download assets", () -> {
+                    downloadAssets(options, config.getMcFiles(), version);
+                    return null;
+                }));
+                specifics = executor.submit(() -> timings.time("specifics", "download specifics", () -> {
+                    autoDownloadSpecifics(options, version, dir.toPath());
+                    return null;
+                }));
+            }
+
+            log.debug("Creating extraction directory");
+            val natives = options.getFiles().createRelative("extracted");
+            val targets = timings.time("classpath", "process libraries", () -> processLibraries(options, version, natives));
+            timings.time("classpath", "add game jar", () -> {
+                addGameJar(version, targets);
+                return null;
+            });
+
+            List<String> classpath = timings.time("classpath", "instrument", () -> instrumentation.instrument(targets));
+            if (options.isRuntime()) {
+                moveRuntimeJarToFirstPlace(classpath);
+            }
+
+            log.debug("Building command");
+            commandBuilder = configureCommandBuilder(options, version, classpath, natives).build();
+            command = commandBuilder.build();
+            debugCommand(command, commandBuilder);
+            if (executor == null) {
+                timings.time("assets", "download assets", () -> {
+                    downloadAssets(options, config.getMcFiles(), version);
+                    return null;
+                });
+                timings.time("specifics", "download specifics", () -> {
+                    autoDownloadSpecifics(options, version, dir.toPath());
+                    return null;
+                });
+            } else {
+                join(assets);
+                join(specifics);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow(); // interrupts the other stages if one of them failed
+            }
+        }
+
+        if (pipeline) {
+            log.info(timings.report());
+        } else {
+            log.debug(timings.report());
+        }
+
         if (options.isPrepare()) {
             return null;
         }
@@ -175,66 +249,145 @@ public class ProcessFactory {
         log.debug("Processing libraries...");
         // TODO: proper features
         val features = Features.EMPTY;
-        val targets = new ArrayList<Target>(version.getLibraries().size());
+        // 1. evaluate rules, the order of the libraries determines the order of the classpath
+        List<ResolvedLibrary> libraries = new ArrayList<>(version.getLibraries().size());
         Set<String> libPaths = new HashSet<>();
-        LibraryDownloader libraryDownloader = new LibraryDownloader(downloadService, config.getConfig(), os);
-        int librariesTODownload = 0;
         for (val library : version.getLibraries()) {
             if (library.getRule().apply(os, features) == Rule.Action.ALLOW) {
+                log.debug("Checking: " + library);
                 String libPath = library.getPath(os);
-                if (!libPaths.add(libPath)) {
-                    continue;
+                if (libPaths.add(libPath)) {
+                    val path = config.getMcFiles().getDir("libraries").toPath().resolve(libPath);
+                    libraries.add(new ResolvedLibrary(library, path));
                 }
+            } else {
+                log.debug("Ignoring: " + library.getName());
+            }
+        }
 
-                val path = config.getMcFiles().getDir("libraries").toPath().resolve(libPath);
-                if ((library.getSha1() != null || library.getSize() != null)
-                        && config.getConfig().getConfig().get(LauncherProperties.LIBRARIES_CHECK_FILE_HASH, false)
-                        && Files.exists(path)
-                        && !downloadService.getChecksumService().checkIntegrity(path, library.getSize(), library.getSha1())) {
-                    log.warn("Library " + libPath + " failed integrity check, deleting...");
-                    Files.delete(path);
-                }
+        List<ResolvedLibrary> missing = new ArrayList<>();
+        for (ResolvedLibrary resolved : libraries) {
+            Library library = resolved.getLibrary();
+            Path path = resolved.getPath();
+            if ((library.getSha1() != null || library.getSize() != null)
+                    && config.getConfig().getConfig().get(LauncherProperties.LIBRARIES_CHECK_FILE_HASH, false)
+                    && Files.exists(path)
+                    && !checkIntegrity(path, library.getSize(), library.getSha1())) {
+                log.warn("Library " + library.getPath(os) + " failed integrity check, deleting...");
+                Files.delete(path);
+            }
 
-                if (!Files.exists(path)) {
-                    librariesTODownload++;
-                }
+            if (!Files.exists(path)) {
+                missing.add(resolved);
             }
         }
 
-        libPaths.clear();
-        try (Progressbar progressbar = librariesTODownload == 0
-                ? Progressbar.dummy()
-                : options.getLauncher().getCommandLine().displayProgressBar(new Progressbar.Configuration("Downloading Libraries", librariesTODownload))) {
-            libraryDownloader.setShouldLog(progressbar.isDummy());
-            for (val library : version.getLibraries()) {
-                if (library.getRule().apply(os, features) == Rule.Action.ALLOW) {
-                    log.debug("Checking: " + library);
-                    String libPath = library.getPath(os);
-                    if (!libPaths.add(libPath)) {
-                        continue;
-                    }
-
-                    val path = config.getMcFiles().getDir("libraries").toPath().resolve(libPath);
-                    if (!Files.exists(path)) {
-                        libraryDownloader.download(library, path);
+        // 2. download missing libraries in parallel
+        if (!missing.isEmpty()) {
+            LibraryDownloader libraryDownloader = new LibraryDownloader(downloadService, config.getConfig(), os);
+            // the tasks step the progress bar from the threads of the ParallelIOService
+            try (Progressbar progressbar = Progressbar.synchronizedProgressbar(displayProgressBar(options, new Progressbar.Configuration("Downloading Libraries", missing.size())))) {
+                libraryDownloader.setShouldLog(progressbar.isDummy());
+                ParallelIOService ioService = createLibraryIOService();
+                ioService.setShouldLog(progressbar.isDummy());
+                for (ResolvedLibrary resolved : missing) {
+                    ioService.addTask(progress -> {
+                        libraryDownloader.download(resolved.getLibrary(), resolved.getPath());
                         progressbar.step();
-                    }
+                    });
+                }
 
-                    String absolutePath = path.toAbsolutePath().toString();
-                    library.getExtractor().extract(absolutePath, dlls);
-                    if (!library.isNativeLibrary()) {
-                        targets.add(new Target(false, absolutePath));
-                    }
+                ioService.execute();
+            }
+        }
+
+        // 3. extract natives in parallel, every library extracts different files
+        NativeExtractionCache nativeCache = getNativeExtractionCache();
+        ParallelIOService extractionService = createLibraryIOService();
+        extractionService.setShouldLog(false);
+        val targets = new ArrayList<Target>(libraries.size());
+        for (ResolvedLibrary resolved : libraries) {
+            Library library = resolved.getLibrary();
+            String absolutePath = resolved.getPath().toAbsolutePath().toString();
+            if (library.getExtractor().isExtracting()) {
+                if (nativeCache == null) {
+                    extractionService.addTask(progress -> library.getExtractor().extract(absolutePath, dlls));
                 } else {
-                    log.debug("Ignoring: " + library.getName());
+                    extractionService.addTask(progress -> nativeCache.extract(library, resolved.getPath(), dlls));
                 }
             }
+
+            if (!library.isNativeLibrary()) {
+                targets.add(new Target(false, absolutePath));
+            }
         }
 
+        extractionService.execute();
+        saveVerifiedFileIndex();
         log.debug("Finished processing libraries");
         return targets;
     }
 
+    /**
+     * @return the cache for extracted natives or {@code null} if {@link LauncherProperties#NATIVES_CACHE} is disabled.
+     */
+    protected @Nullable NativeExtractionCache getNativeExtractionCache() {
+        if (!config.getConfig().getConfig().get(LauncherProperties.NATIVES_CACHE, true)) {
+            return null;
+        }
+
+        return new NativeExtractionCache(config.getFileManager().getDir("cache").toPath().resolve("natives"), os);
+    }
+
+    protected ParallelIOService createLibraryIOService() {
+        ParallelIOService ioService = new ParallelIOService(0L, 1L, config.getConfig().getConfig().get(LauncherProperties.LIBRARIES_PARALLEL, true), false);
+        ioService.setConcurrency(config.getConfig().getConfig().get(LauncherProperties.DOWNLOAD_CONCURRENCY, (long) ParallelIOService.DEFAULT_CONCURRENCY).intValue());
+        ioService.setVirtualThreads(config.getConfig().getConfig().get(LauncherProperties.DOWNLOAD_VIRTUAL_THREADS, false));
+        return ioService;
+    }
+
+    protected boolean checkIntegrity(Path path, @Nullable Long size, @Nullable String hash) throws IOException {
+        VerifiedFileIndex index = getVerifiedFileIndex();
+        if (index != null) {
+            return index.checkIntegrity(path, size, hash);
+        }
+
+        return downloadService.getChecksumService().checkIntegrity(path, size, hash);
+    }
+
+    /**
+     * Returns the index of files that have already been verified, so that integrity checks
+     * do not have to hash every library and asset on every launch.
+     *
+     * @return the index of verified files or {@code null} if {@link LauncherProperties#VERIFIED_FILE_INDEX} is disabled.
+     */
+    public synchronized @Nullable VerifiedFileIndex getVerifiedFileIndex() {
+        if (!config.getConfig().getConfig().get(LauncherProperties.VERIFIED_FILE_INDEX, true)) {
+            return null;
+        }
+
+        if (verifiedFileIndex == null) {
+            Path file = config.getFileManager().getDir("cache").toPath().resolve("verified-files.txt");
+            verifiedFileIndex = new VerifiedFileIndex(downloadService.getChecksumService(), file);
+            if (config.getConfig().getConfig().get(LauncherProperties.VERIFIED_FILE_INDEX_REVERIFY, false)) {
+                verifiedFileIndex.reverifyInBackground();
+            }
+        }
+
+        return verifiedFileIndex;
+    }
+
+    private void saveVerifiedFileIndex() {
+        VerifiedFileIndex index = verifiedFileIndex;
+        if (index != null) {
+            try {
+                index.save();
+            } catch (IOException e) {
+                log.error("Failed to save verified files to " + index.getFile(), e);
+            }
+        }
+    }
+
     protected boolean checkZipIntact(File file) {
         val name = file.getName();
         boolean result = true;
@@ -257,7 +410,75 @@ public class ProcessFactory {
 
     protected void downloadAssets(LaunchOptions options, FileManager files, Version version) throws IOException {
         log.debug("Downloading Assets");
-        new AssetsDownloader(options.getLauncher().getCommandLine(), downloadService, config.getConfig(), files, version.getAssetsUrl(), version.getAssets()).download();
+        AssetsDownloader assetsDownloader = new AssetsDownloader(configuration -> displayProgressBar(options, configuration), downloadService, config.getConfig(), files, version.getAssetsUrl(), version.getAssets());
+        assetsDownloader.setVerifiedFileIndex(getVerifiedFileIndex());
+        assetsDownloader.download();
+        saveVerifiedFileIndex();
+    }
+
+    /**
+     * Displays a progress bar on the command line of the launcher.
+     * The command line can only render one progress bar at a time, but in pipeline mode
+     * ({@link LauncherProperties#LAUNCH_PIPELINE}) libraries and assets are downloaded at the same time.
+     * While a progress bar is active, other stages get a dummy progress bar and log their progress instead.
+     *
+     * @param options the options of the launch.
+     * @param configuration the configuration of the progress bar.
+     * @return the progress bar, or a dummy if another progress bar is active.
+     */
+    protected Progressbar displayProgressBar(LaunchOptions options, Progressbar.Configuration configuration) {
+        if (!progressBarActive.compareAndSet(false, true)) {
+            return Progressbar.dummy();
+        }
+
+        Progressbar progressbar;
+        try {
+            progressbar = options.getLauncher().getCommandLine().displayProgressBar(configuration);
+        } catch (RuntimeException | Error e) {
+            progressBarActive.set(false);
+            throw e;
+        }
+
+        if (progressbar.isDummy()) {
+            progressBarActive.set(false);
+            return progressbar;
+        }
+
+        return new Progressbar() {
+            @Override
+            public void close() {
+                try {
+                    progressbar.close();
+                } finally {
+                    progressBarActive.set(false);
+                }
+            }
+
+            @Override
+            public void stepBy(long n) {
+                progressbar.stepBy(n);
+            }
+
+            @Override
+            public void stepTo(long n) {
+                progressbar.stepTo(n);
+            }
+
+            @Override
+            public void step() {
+                progressbar.step();
+            }
+
+            @Override
+            public void maxHint(long n) {
+                progressbar.maxHint(n);
+            }
+
+            @Override
+            public boolean isDummy() {
+                return false;
+            }
+        };
     }
 
     /**
@@ -284,6 +505,30 @@ public class ProcessFactory {
         log.debug(commandDebugBuilder.toString());
     }
 
+    private void join(Future<?> stage) throws IOException, LaunchException, AuthException {
+        try {
+            stage.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for launch stage", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof LaunchException) {
+                throw (LaunchException) cause;
+            } else if (cause instanceof AuthException) {
+                throw (AuthException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException(cause);
+        }
+    }
+
     private void autoDownloadSpecifics(LaunchOptions options, Version version, Path gameDir) throws IOException {
         if (options.isSpecifics()) {
             if (Modlauncher.getFromVersionName(version.getName()) == null) {
@@ -303,4 +548,10 @@ public class ProcessFactory {
         }
     }
 
+    @Data
+    private static final class ResolvedLibrary {
+        private final Library library;
+        private final Path path;
+    }
+
 }
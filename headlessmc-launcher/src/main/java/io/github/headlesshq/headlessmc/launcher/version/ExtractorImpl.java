@@ -5,12 +5,15 @@ import lombok.CustomLog;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 import io.github.headlesshq.headlessmc.launcher.files.FileManager;
+import io.github.headlesshq.headlessmc.launcher.files.IOService;
 import io.github.headlesshq.headlessmc.launcher.util.IOUtil;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
 import java.util.jar.JarFile;
@@ -18,6 +21,7 @@ import java.util.jar.JarFile;
 @CustomLog
 @RequiredArgsConstructor
 class ExtractorImpl implements Extractor {
+    private final IOService ioService = new IOService();
     private final List<String> exceptions;
 
     public ExtractorImpl() {
@@ -38,12 +42,19 @@ class ExtractorImpl implements Extractor {
                                   je.getName(), jar.getName(),
                                   fileManager.getBase(), File.separator,
                                   je.getName()));
-                @Cleanup
-                val is = jar.getInputStream(je);
                 File file = fileManager.create(je.getName());
-                @Cleanup
-                OutputStream os = new FileOutputStream(file);
-                IOUtil.copy(is, os);
+                // natives are extracted in parallel, another library could contain the same file,
+                // so write to a temporary file first, that way the file is never half-written
+                File temp = File.createTempFile(file.getName(), ".part", file.getParentFile());
+                try {
+                    try (InputStream is = jar.getInputStream(je); OutputStream os = new FileOutputStream(temp)) {
+                        IOUtil.copy(is, os);
+                    }
+
+                    ioService.move(temp.toPath(), file.toPath());
+                } finally {
+                    Files.deleteIfExists(temp.toPath());
+                }
             }
         }
     }
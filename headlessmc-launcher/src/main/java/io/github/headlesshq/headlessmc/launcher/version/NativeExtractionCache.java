@@ -0,0 +1,180 @@
+package io.github.headlesshq.headlessmc.launcher.version;
+
+import lombok.CustomLog;
+import lombok.Data;
+import lombok.Getter;
+import io.github.headlesshq.headlessmc.launcher.files.FileManager;
+import io.github.headlesshq.headlessmc.launcher.files.IOService;
+import io.github.headlesshq.headlessmc.os.OS;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps the natives extracted from libraries in a cache directory, keyed by the SHA-1 of the library
+ * and the operating system and architecture, so that they are extracted only once.
+ * For a launch the cached natives are hard linked into the extraction directory, or copied if that is not possible.
+ * <p>Every cache entry contains a manifest with the name, size and CRC of every extracted file,
+ * as listed in the central directory of the library. An entry is used as long as the manifest matches the library
+ * and every file still has its size, so a launch with a valid cache does not decompress anything.
+ */
+@CustomLog
+public class NativeExtractionCache {
+    private static final String MANIFEST = ".hmc-natives";
+
+    private final IOService ioService = new IOService();
+    @Getter
+    private final Path directory;
+    private final String platform;
+    private volatile boolean linkFailed;
+
+    public NativeExtractionCache(Path directory, OS os) {
+        this.directory = directory;
+        this.platform = os.getType().getName() + "-" + os.getArchitecture().toLowerCase(Locale.ENGLISH) + (os.is64bit() ? "-64" : "-32");
+    }
+
+    /**
+     * Extracts the natives of the given library into the given directory,
+     * like {@link Extractor#extract(String, FileManager)}, but through the cache.
+     * Libraries without a SHA-1 are extracted directly.
+     *
+     * @param library the library to extract.
+     * @param jar     the location of the library.
+     * @param target  the directory to extract the natives into.
+     * @throws IOException if extracting or linking fails.
+     */
+    public void extract(Library library, Path jar, FileManager target) throws IOException {
+        Extractor extractor = library.getExtractor();
+        String sha1 = library.getSha1();
+        if (sha1 == null) {
+            extractor.extract(jar.toAbsolutePath().toString(), target);
+            return;
+        }
+
+        Path entry = directory.resolve(sha1.toLowerCase(Locale.ENGLISH) + "-" + platform);
+        List<Native> natives = list(jar, extractor);
+        if (!isValid(entry, natives)) {
+            populate(entry, jar, extractor, natives);
+        }
+
+        Path base = target.getBase().toPath();
+        for (Native n : natives) {
+            link(entry.resolve(n.getName()), base.resolve(n.getName()));
+        }
+    }
+
+    private List<Native> list(Path jar, Extractor extractor) throws IOException {
+        List<Native> result = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && extractor.shouldExtract(entry.getName())) {
+                    result.add(new Native(entry.getName(), entry.getSize(), entry.getCrc()));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isValid(Path entry, List<Native> natives) throws IOException {
+        try {
+            if (!toManifest(natives).equals(new String(Files.readAllBytes(entry.resolve(MANIFEST)), StandardCharsets.UTF_8))) {
+                return false;
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        for (Native n : natives) {
+            Path file = entry.resolve(n.getName());
+            if (!Files.isRegularFile(file) || Files.size(file) != n.getSize()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void populate(Path entry, Path jar, Extractor extractor, List<Native> natives) throws IOException {
+        log.debug("Extracting " + jar + " into the native cache " + entry);
+        Files.createDirectories(directory);
+        Path temp = Files.createTempDirectory(directory, entry.getFileName() + "-");
+        try {
+            extractor.extract(jar.toAbsolutePath().toString(), FileManager.forPath(temp.toString()));
+            Files.write(temp.resolve(MANIFEST), toManifest(natives).getBytes(StandardCharsets.UTF_8));
+            if (Files.exists(entry)) {
+                FileManager.forPath(entry.toString()).delete(entry.toFile());
+            }
+
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // another process populated the entry in the meantime
+                if (!isValid(entry, natives)) {
+                    throw e;
+                }
+            }
+        } finally {
+            if (Files.exists(temp)) {
+                FileManager.forPath(temp.toString()).delete(temp.toFile());
+            }
+        }
+    }
+
+    private void link(Path cached, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        // natives are extracted in parallel, another library could contain the same file,
+        // so create the file under a temporary name first, that way the file is never half-written
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try {
+            if (!linkFailed) {
+                try {
+                    Files.createLink(temp, cached);
+                } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                    log.debug("Failed to link " + cached + ", copying natives instead: " + e);
+                    linkFailed = true;
+                }
+            }
+
+            if (linkFailed) {
+                Files.copy(cached, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            ioService.move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String toManifest(List<Native> natives) {
+        StringBuilder builder = new StringBuilder();
+        for (Native n : natives) {
+            builder.append(n.getCrc()).append('\t').append(n.getSize()).append('\t').append(n.getName()).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    @Data
+    private static final class Native {
+        private final String name;
+        private final long size;
+        private final long crc;
+    }
+
+}
@@ -5,14 +5,29 @@ import lombok.val;
 import io.github.headlesshq.headlessmc.launcher.version.family.FamilyCleaner;
 import io.github.headlesshq.headlessmc.launcher.version.family.FamilyUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 @CustomLog
 final class ParentVersionResolver {
     public void resolveParentVersions(Map<String, Version> versions) {
+        resolveParentVersions(versions, new ArrayList<>(versions.values()));
+    }
+
+    /**
+     * Resolves the parents of the given versions only, looking them up in all versions.
+     * Versions whose families are invalid get removed from the versions.
+     *
+     * @param versions all versions by name.
+     * @param toResolve the versions whose parents to resolve, e.g. because their families changed.
+     * @return the versions that were removed, because their families are invalid.
+     */
+    public Set<Version> resolveParentVersions(Map<String, Version> versions, Collection<Version> toResolve) {
         val invalid = new HashSet<Version>();
-        FamilyUtil.resolveParents(versions.values(), version -> {
+        FamilyUtil.resolveParents(toResolve, version -> {
             val parentName = version.getParentName();
             if (parentName == null) {
                 return null;
@@ -33,7 +48,9 @@ final class ParentVersionResolver {
         });
 
         val cleaner = new FamilyCleaner<Version>();
-        cleaner.clean(versions.values(), invalid);
+        cleaner.clean(new ArrayList<>(toResolve), invalid);
+        versions.values().removeIf(invalid::contains);
+        return invalid;
     }
 
 }
@@ -0,0 +1,135 @@
+package io.github.headlesshq.headlessmc.launcher.version;
+
+import com.google.gson.JsonObject;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import io.github.headlesshq.headlessmc.launcher.util.JsonUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A {@link Version} read from a {@link VersionSnapshot}.
+ * Only the fields stored in the snapshot are available right away,
+ * the version json gets parsed the first time any other field is accessed.
+ * The json is only parsed if it still has the size and modification time
+ * the {@link VersionService} validated the snapshot against, see {@link #load()}.
+ */
+@Getter
+@RequiredArgsConstructor
+final class SnapshotVersion implements Version {
+    @Getter(AccessLevel.NONE)
+    private final File file;
+    @Getter(AccessLevel.NONE)
+    private final long lastModified;
+    @Getter(AccessLevel.NONE)
+    private final long length;
+    private final File folder;
+    private final int id;
+    private final String name;
+    private final @Nullable String parentName;
+    private final String type;
+    private final String assets;
+    private final String assetsUrl;
+    private final Integer java;
+    private final String mainClass;
+    @Setter
+    private Version parent;
+    @Getter(AccessLevel.NONE)
+    private volatile Version parsed;
+
+    @Override
+    public JsonObject getJson() {
+        return parse().getJson();
+    }
+
+    @Override
+    public List<Library> getLibraries() {
+        return parse().getLibraries();
+    }
+
+    @Override
+    public List<Argument> getArguments() {
+        return parse().getArguments();
+    }
+
+    @Override
+    public boolean isNewArgumentFormat() {
+        return parse().isNewArgumentFormat();
+    }
+
+    @Override
+    public @Nullable VersionExecutable getClientDownload() {
+        return parse().getClientDownload();
+    }
+
+    @Override
+    public @Nullable VersionExecutable getServerDownload() {
+        return parse().getServerDownload();
+    }
+
+    @Override
+    public @Nullable Logging getLogging() {
+        return parse().getLogging();
+    }
+
+    /**
+     * @return {@code true} if the version json of this version has been parsed.
+     */
+    public boolean isParsed() {
+        return parsed != null;
+    }
+
+    /**
+     * Parses the version json of this version, if it has not been parsed yet.
+     *
+     * @return the parsed version.
+     * @throws VersionParseException if the version json changed since the versions have been refreshed,
+     *                               or if it could not be read or parsed.
+     */
+    public Version load() throws VersionParseException {
+        Version result = parsed;
+        if (result == null) {
+            synchronized (this) {
+                result = parsed;
+                if (result == null) {
+                    if (file.lastModified() != lastModified || file.length() != length) {
+                        throw new VersionParseException("Version " + name + " has changed since it has been read ("
+                                                            + file.getAbsolutePath() + "), please refresh your versions with 'versions -refresh'.");
+                    }
+
+                    JsonObject json;
+                    try {
+                        json = JsonUtil.fromFile(file).getAsJsonObject();
+                    } catch (IOException | IllegalStateException e) {
+                        throw new VersionParseException("Failed to read version " + name + " (" + file.getAbsolutePath() + "): "
+                                                            + e.getMessage() + ", please refresh your versions with 'versions -refresh'.", e);
+                    }
+
+                    result = new DefaultVersionFactory().parse(json, folder, () -> id);
+                    parsed = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private Version parse() {
+        try {
+            return load();
+        } catch (VersionParseException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotVersion(name=" + name + ", id=" + id + ", folder=" + folder + ")";
+    }
+
+}
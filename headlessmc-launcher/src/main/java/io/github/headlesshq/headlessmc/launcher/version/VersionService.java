@@ -1,22 +1,50 @@
 package io.github.headlesshq.headlessmc.launcher.version;
 
-import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import lombok.AccessLevel;
 import lombok.CustomLog;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.val;
+import io.github.headlesshq.headlessmc.api.config.Config;
+import io.github.headlesshq.headlessmc.launcher.LauncherProperties;
 import io.github.headlesshq.headlessmc.launcher.LazyService;
 import io.github.headlesshq.headlessmc.launcher.files.LauncherConfig;
 import io.github.headlesshq.headlessmc.launcher.util.JsonUtil;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+/**
+ * Lists the versions in the versions folder of the {@link LauncherConfig#getMcFiles()}.
+ * A refresh only parses version jsons whose size or modification time changed since the last refresh,
+ * in parallel, and only resolves the parents of versions whose family changed.
+ * The parsed versions are kept in a {@link VersionSnapshot}, so that the first refresh
+ * does not need to parse the version jsons either, see {@link LauncherProperties#VERSION_SNAPSHOT}.
+ * <p>The id of a version stays the same for as long as its version json exists, even if the json changes.
+ * New version jsons get ids that have not been given out before, so ids are not necessarily {@code 0} to {@code n - 1}.
+ */
 @Setter
 @CustomLog
 @RequiredArgsConstructor
@@ -24,13 +52,43 @@ public final class VersionService extends LazyService<Version> {
     private final ParentVersionResolver resolver = new ParentVersionResolver();
     private final LauncherConfig launcherConfig;
 
+    // parsed version jsons, reused as long as their size and modification time do not change
+    @Setter(AccessLevel.NONE)
+    private Map<File, ParsedFile> parsed = new HashMap<>();
+    // all parsed versions by name, including the ones with invalid families
+    @Setter(AccessLevel.NONE)
+    private Map<String, Version> versions = new HashMap<>();
+    @Setter(AccessLevel.NONE)
+    private Set<Version> invalid = Collections.newSetFromMap(new IdentityHashMap<>());
+    // valid versions by lower case name
+    @Setter(AccessLevel.NONE)
+    private volatile Map<String, Version> index = Collections.emptyMap();
+    // ids are never reused, the next id is stored in the snapshot as well
+    @Setter(AccessLevel.NONE)
+    private int nextId = 0;
+    @Setter(AccessLevel.NONE)
+    private boolean snapshotRead;
+
     private int retries = 0;
+    private int threads = Runtime.getRuntime().availableProcessors();
 
     public @Nullable Version getVersionByName(String name) {
-        return stream()
-                .filter(v -> v.getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+        ensureInitialized();
+        return index.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    @Override
+    public void add(Version value) {
+        super.add(value);
+        val index = new HashMap<>(this.index);
+        index.putIfAbsent(value.getName().toLowerCase(Locale.ENGLISH), value);
+        this.index = index;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        index = Collections.emptyMap();
     }
 
     @Override
@@ -39,22 +97,36 @@ public final class VersionService extends LazyService<Version> {
         val versionFolders = launcherConfig.getMcFiles().getDir("versions").listFiles();
         if (versionFolders == null) {
             log.warning("No Minecraft Version folder found!");
-            return Collections.emptyList();
+            parsed = new HashMap<>();
+            versions = new HashMap<>();
+            invalid = Collections.newSetFromMap(new IdentityHashMap<>());
+            index = Collections.emptyMap();
+            return new ArrayList<>(0);
         }
 
-        val fact = new DefaultVersionFactory();
-        val versions = new LinkedHashMap<String, Version>();
-        val id = new AtomicInteger();
+        val snapshot = getSnapshot();
+        if (snapshot != null && !snapshotRead) {
+            snapshotRead = true;
+            readSnapshot(snapshot);
+        }
+
+        val files = new ArrayList<VersionFile>();
+        val toRead = new ArrayList<File>();
         for (val versionFolder : versionFolders) {
             if (!versionFolder.isDirectory()) {
                 continue;
             }
 
-            val files = versionFolder.listFiles();
-            if (files != null) {
-                for (val versionFile : files) {
+            val folderFiles = versionFolder.listFiles();
+            if (folderFiles != null) {
+                for (val versionFile : folderFiles) {
                     if (versionFile.getName().endsWith(".json")) {
-                        read(versionFile, versionFolder, versions, id, fact);
+                        val file = new VersionFile(versionFile, versionFolder, versionFile.lastModified(), versionFile.length());
+                        files.add(file);
+                        ParsedFile previous = parsed.get(versionFile);
+                        if (previous == null || !previous.matches(file)) {
+                            toRead.add(versionFile);
+                        }
                     }
                 }
             } else {
@@ -62,25 +134,190 @@ public final class VersionService extends LazyService<Version> {
             }
         }
 
-        resolver.resolveParentVersions(versions);
+        val jsons = readAll(toRead);
+        val fact = new DefaultVersionFactory();
+        val newParsed = new HashMap<File, ParsedFile>();
+        val newVersions = new LinkedHashMap<String, Version>();
+        for (val file : files) {
+            Version version;
+            ParsedFile previous = parsed.get(file.getFile());
+            if (previous != null && previous.matches(file)) {
+                version = previous.getVersion();
+            } else {
+                // a changed version json keeps its id
+                Supplier<Integer> id = previous == null ? () -> nextId++ : previous.getVersion()::getId;
+                JsonObject json = jsons.get(file.getFile());
+                version = json == null ? null : parse(file.getFile(), file.getFolder(), json, fact, id);
+            }
+
+            if (version != null) {
+                newParsed.put(file.getFile(), new ParsedFile(file.getLastModified(), file.getLength(), version));
+                newVersions.put(version.getName(), version);
+            }
+        }
+
+        val changed = new HashSet<String>();
+        for (val entry : versions.entrySet()) {
+            if (newVersions.get(entry.getKey()) != entry.getValue()) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        for (val entry : newVersions.entrySet()) {
+            if (versions.get(entry.getKey()) != entry.getValue()) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        val toResolve = new ArrayList<Version>();
+        for (val version : newVersions.values()) {
+            if (invalid.contains(version) || familyChanged(version, newVersions, changed)) {
+                toResolve.add(version);
+            }
+        }
+
+        // previously invalid versions are always resolved again, so all invalid versions are among the resolved ones
+        val valid = new LinkedHashMap<>(newVersions);
+        val newInvalid = Collections.newSetFromMap(new IdentityHashMap<Version, Boolean>());
+        newInvalid.addAll(resolver.resolveParentVersions(valid, toResolve));
+
+        val newIndex = new HashMap<String, Version>();
+        for (val version : valid.values()) {
+            newIndex.putIfAbsent(version.getName().toLowerCase(Locale.ENGLISH), version);
+        }
+
+        if (snapshot != null && snapshotChanged(newParsed)) {
+            writeSnapshot(snapshot, newParsed);
+        }
+
+        parsed = newParsed;
+        versions = newVersions;
+        invalid = newInvalid;
+        index = newIndex;
         nanos = System.nanoTime() - nanos;
-        log.debug("Version refresh took " + (nanos / 1_000_000.0) + "ms.");
-        return versions.values();
+        log.debug("Version refresh took " + (nanos / 1_000_000.0) + "ms, parsed " + toRead.size()
+                      + " files, resolved " + toResolve.size() + " versions.");
+        return new ArrayList<>(valid.values());
+    }
+
+    private @Nullable VersionSnapshot getSnapshot() {
+        Config config = launcherConfig.getConfig().getConfig();
+        if (config != null && !config.get(LauncherProperties.VERSION_SNAPSHOT, true)) {
+            return null;
+        }
+
+        return new VersionSnapshot(launcherConfig.getFileManager().getDir("cache").toPath().resolve("versions.bin"));
+    }
+
+    private void readSnapshot(VersionSnapshot snapshot) {
+        val contents = snapshot.read();
+        if (contents != null) {
+            for (val entry : contents.getEntries()) {
+                parsed.putIfAbsent(entry.getFile(), new ParsedFile(entry.getLastModified(), entry.getLength(), entry.getVersion()));
+            }
+
+            nextId = Math.max(nextId, contents.getNextId());
+            log.debug("Read " + contents.getEntries().size() + " versions from " + snapshot.getFile());
+        }
+    }
+
+    private boolean snapshotChanged(Map<File, ParsedFile> newParsed) {
+        if (newParsed.size() != parsed.size()) {
+            return true;
+        }
+
+        for (val entry : newParsed.entrySet()) {
+            ParsedFile previous = parsed.get(entry.getKey());
+            if (previous == null || previous.getVersion() != entry.getValue().getVersion()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void writeSnapshot(VersionSnapshot snapshot, Map<File, ParsedFile> newParsed) {
+        val entries = new ArrayList<VersionSnapshot.Entry>(newParsed.size());
+        for (val entry : newParsed.entrySet()) {
+            ParsedFile file = entry.getValue();
+            entries.add(new VersionSnapshot.Entry(entry.getKey(), file.getLastModified(), file.getLength(), file.getVersion()));
+        }
+
+        try {
+            snapshot.write(nextId, entries);
+        } catch (IOException e) {
+            log.warn("Failed to write version snapshot " + snapshot.getFile() + ": " + e.getMessage());
+        }
+    }
+
+    private boolean familyChanged(Version version, Map<String, Version> versions, Set<String> changed) {
+        val visited = new HashSet<String>();
+        String name = version.getName();
+        while (name != null && visited.add(name)) {
+            if (changed.contains(name)) {
+                return true;
+            }
+
+            Version member = versions.get(name);
+            name = member == null ? null : member.getParentName();
+        }
+
+        return false;
+    }
+
+    private Map<File, JsonObject> readAll(List<File> files) {
+        val result = new ConcurrentHashMap<File, JsonObject>();
+        if (files.size() <= 1 || threads <= 1) {
+            for (val file : files) {
+                JsonObject json = read(file);
+                if (json != null) {
+                    result.put(file, json);
+                }
+            }
+
+            return result;
+        }
+
+        val tasks = new ArrayList<Callable<Void>>(files.size());
+        for (val file : files) {
+            tasks.add(() -> {
+                JsonObject json = read(file);
+                if (json != null) {
+                    result.put(file, json);
+                }
+
+                return null;
+            });
+        }
+
+        val threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()), runnable -> {
+            Thread thread = new Thread(runnable, "HeadlessMc-Versions-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return result;
     }
 
-    private void read(File file, File folder, Map<String, Version> versions, AtomicInteger id, VersionFactory factory) {
+    private @Nullable JsonObject read(File file) {
         for (int i = 0; i < retries + 1; i++) {
             try {
                 log.debug("Reading " + file.getAbsolutePath());
-                JsonElement je = JsonUtil.fromFile(file);
-                val version = factory.parse(je.getAsJsonObject(), folder, id::getAndIncrement);
-                if (version.getName() == null) {
-                    log.warning("Failed to read version " + file.getName() + ", it did not provide a name!");
-                } else {
-                    versions.put(version.getName(), version);
-                }
-
-                return;
+                return JsonUtil.fromFile(file).getAsJsonObject();
             } catch (Exception e) {
                 if (i == retries) {
                     log.warning("Failed to read " + file.getName() + ", " + e.getClass() + ": " + e.getMessage());
@@ -95,6 +332,42 @@ public final class VersionService extends LazyService<Version> {
                 }
             }
         }
+
+        return null;
+    }
+
+    private @Nullable Version parse(File file, File folder, JsonObject json, VersionFactory factory, Supplier<Integer> id) {
+        try {
+            val version = factory.parse(json, folder, id);
+            if (version.getName() == null) {
+                log.warning("Failed to read version " + file.getName() + ", it did not provide a name!");
+                return null;
+            }
+
+            return version;
+        } catch (Exception e) {
+            log.warning("Failed to read " + file.getName() + ", " + e.getClass() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Data
+    private static final class VersionFile {
+        private final File file;
+        private final File folder;
+        private final long lastModified;
+        private final long length;
+    }
+
+    @Data
+    private static final class ParsedFile {
+        private final long lastModified;
+        private final long length;
+        private final Version version;
+
+        public boolean matches(VersionFile file) {
+            return lastModified == file.getLastModified() && length == file.getLength();
+        }
     }
 
 }
@@ -0,0 +1,155 @@
+package io.github.headlesshq.headlessmc.launcher.version;
+
+import lombok.CustomLog;
+import lombok.Data;
+import lombok.Getter;
+import io.github.headlesshq.headlessmc.launcher.Launcher;
+import io.github.headlesshq.headlessmc.launcher.files.IOService;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A binary on-disk snapshot of the versions parsed by the {@link VersionService}.
+ * For every version json it stores the size and modification time the json had when it was parsed,
+ * together with the fields needed to list versions and to resolve their parents.
+ * Versions are read back as {@link SnapshotVersion}s, which only parse their json once it is needed,
+ * so a start in which no version json changed does not parse any json at all.
+ * <p>The snapshot is discarded if it has been written by another version of HeadlessMc,
+ * because the way versions are parsed might have changed.
+ */
+@CustomLog
+final class VersionSnapshot {
+    private static final int MAGIC = 0x484D4356; // HMCV
+    private static final int FORMAT = 1;
+
+    private final IOService ioService = new IOService();
+    @Getter
+    private final Path file;
+
+    public VersionSnapshot(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the snapshot.
+     *
+     * @return the contents of the snapshot or {@code null} if there is no valid snapshot.
+     */
+    public @Nullable Contents read() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT || !Launcher.VERSION.equals(in.readUTF())) {
+                log.debug("Discarding outdated version snapshot " + file);
+                return null;
+            }
+
+            int nextId = in.readInt();
+            int size = in.readInt();
+            List<Entry> entries = new ArrayList<>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                File versionFile = new File(in.readUTF());
+                File folder = new File(in.readUTF());
+                long lastModified = in.readLong();
+                long length = in.readLong();
+                SnapshotVersion version = new SnapshotVersion(
+                    versionFile, lastModified, length, folder, in.readInt(), in.readUTF(), readNullable(in), readNullable(in),
+                    readNullable(in), readNullable(in), in.readBoolean() ? in.readInt() : null, readNullable(in));
+                entries.add(new Entry(versionFile, lastModified, length, version));
+            }
+
+            return new Contents(nextId, entries);
+        } catch (NoSuchFileException ignored) {
+            // no snapshot has been written yet
+        } catch (IOException e) {
+            log.warn("Failed to read version snapshot " + file, e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Writes a new snapshot, replacing the old one.
+     *
+     * @param nextId  the next id the {@link VersionService} will give to a version.
+     * @param entries the parsed version jsons.
+     * @throws IOException if writing fails.
+     */
+    public void write(int nextId, Collection<Entry> entries) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        // a unique temporary file, other launchers might be writing the snapshot at the same time
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            write(temp, nextId, entries);
+            ioService.move(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void write(Path to, int nextId, Collection<Entry> entries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(to)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeUTF(Launcher.VERSION);
+            out.writeInt(nextId);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                Version version = entry.getVersion();
+                out.writeUTF(entry.getFile().getPath());
+                out.writeUTF(version.getFolder().getPath());
+                out.writeLong(entry.getLastModified());
+                out.writeLong(entry.getLength());
+                out.writeInt(version.getId());
+                out.writeUTF(version.getName());
+                writeNullable(out, version.getParentName());
+                writeNullable(out, version.getType());
+                writeNullable(out, version.getAssets());
+                writeNullable(out, version.getAssetsUrl());
+                out.writeBoolean(version.getJava() != null);
+                if (version.getJava() != null) {
+                    out.writeInt(version.getJava());
+                }
+
+                writeNullable(out, version.getMainClass());
+            }
+        }
+    }
+
+    private static @Nullable String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    @Data
+    static final class Contents {
+        private final int nextId;
+        private final List<Entry> entries;
+    }
+
+    @Data
+    static final class Entry {
+        private final File file;
+        private final long lastModified;
+        private final long length;
+        private final Version version;
+    }
+
+}
@@ -4,6 +4,7 @@ import lombok.CustomLog;
 import lombok.experimental.UtilityClass;
 import io.github.headlesshq.headlessmc.api.HasName;
 import io.github.headlesshq.headlessmc.api.util.Table;
+import io.github.headlesshq.headlessmc.launcher.version.family.FamilyUtil;
 import org.semver4j.Semver;
 
 import java.util.Collection;
@@ -48,4 +49,19 @@ public final class VersionUtil {
         }
     }
 
+    /**
+     * Makes sure that the version jsons of the given version and its parents,
+     * which might only be read lazily, can still be read.
+     *
+     * @param version the version to load.
+     * @throws VersionParseException if a version json changed since the versions have been refreshed or could not be read.
+     */
+    public static void load(Version version) throws VersionParseException {
+        for (Version member : FamilyUtil.reverse(version)) {
+            if (member instanceof SnapshotVersion) {
+                ((SnapshotVersion) member).load();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,50 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssetIndexReaderTest {
+    private final AssetIndexReader reader = new AssetIndexReader();
+
+    @Test
+    public void testRead() throws IOException {
+        Path index = write("{\"virtual\": true, \"unknown\": {\"objects\": {}}, \"objects\": {"
+                               + "\"icons/icon_16x16.png\": {\"hash\": \"bdf48ef6b5d0d23bbb02e17d04865216179f510a\", \"size\": 3665},"
+                               + "\"sounds/a.ogg\": {\"size\": 12, \"extra\": [1, {\"hash\": \"x\"}], \"hash\": \"ab\", \"map_to_resources\": true},"
+                               + "\"lang/b.json\": {\"hash\": \"cd\", \"map_to_resources\": \"false\"}"
+                               + "}}");
+        List<AssetIndexReader.Asset> assets = new ArrayList<>();
+        assertEquals(3, reader.read(index, assets::add));
+        assertEquals(3, assets.size());
+        assertEquals(new AssetIndexReader.Asset("icons/icon_16x16.png", "bdf48ef6b5d0d23bbb02e17d04865216179f510a", 3665L, false), assets.get(0));
+        assertEquals(new AssetIndexReader.Asset("sounds/a.ogg", "ab", 12L, true), assets.get(1));
+        assertEquals(new AssetIndexReader.Asset("lang/b.json", "cd", -1L, false), assets.get(2));
+        assertEquals(Long.valueOf(12L), assets.get(1).getSizeOrNull());
+        assertNull(assets.get(2).getSizeOrNull());
+    }
+
+    @Test
+    public void testInvalidIndex() throws IOException {
+        assertThrows(IOException.class, () -> reader.read(write("{\"virtual\": true}"), asset -> fail()));
+        assertThrows(IOException.class, () -> reader.read(write("{\"objects\": {\"a\": {\"size\": 1}}}"), asset -> fail()));
+        assertThrows(IOException.class, () -> reader.read(write("{\"objects\": {\"a\": {\"hash\": \"ab\", \"size\": \"big\"}}}"), asset -> fail()));
+        assertThrows(IOException.class, () -> reader.read(write("{\"objects\": {\"a\": "), asset -> fail()));
+        assertThrows(IOException.class, () -> reader.read(write("[]"), asset -> fail()));
+        assertEquals(0, reader.read(write("{\"objects\": {}}"), asset -> fail()));
+    }
+
+    private static Path write(String json) throws IOException {
+        Path index = Files.createTempFile("hmc-asset-index-test", ".json");
+        Files.write(index, json.getBytes(StandardCharsets.UTF_8));
+        return index;
+    }
+
+}
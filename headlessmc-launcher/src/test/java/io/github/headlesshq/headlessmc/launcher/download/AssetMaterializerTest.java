@@ -0,0 +1,44 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssetMaterializerTest {
+    @Test
+    public void testParse() {
+        assertEquals(AssetMaterializer.Strategy.COPY, AssetMaterializer.Strategy.parse(null));
+        assertEquals(AssetMaterializer.Strategy.COPY, AssetMaterializer.Strategy.parse(""));
+        assertEquals(AssetMaterializer.Strategy.COPY, AssetMaterializer.Strategy.parse("reflink"));
+        assertEquals(AssetMaterializer.Strategy.HARDLINK, AssetMaterializer.Strategy.parse("hardlink"));
+        assertEquals(AssetMaterializer.Strategy.SYMLINK, AssetMaterializer.Strategy.parse(" SymLink "));
+    }
+
+    @Test
+    public void testMaterialize() throws IOException {
+        for (AssetMaterializer.Strategy strategy : AssetMaterializer.Strategy.values()) {
+            Path dir = Files.createTempDirectory("hmc-asset-materializer-test");
+            Path object = dir.resolve("objects").resolve("ab").resolve("abcdef");
+            Files.createDirectories(object.getParent());
+            Files.write(object, "asset".getBytes(StandardCharsets.UTF_8));
+
+            Path target = dir.resolve("virtual").resolve("legacy").resolve("sounds").resolve("a.ogg");
+            AssetMaterializer materializer = new AssetMaterializer(strategy);
+            materializer.materialize(object, target);
+            assertEquals("asset", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+            // materializing again replaces the existing file
+            materializer.materialize(object, target);
+            assertEquals("asset", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+            assertEquals("asset", new String(Files.readAllBytes(object), StandardCharsets.UTF_8));
+            if (strategy == AssetMaterializer.Strategy.COPY) {
+                assertFalse(Files.isSameFile(object, target));
+            }
+        }
+    }
+
+}
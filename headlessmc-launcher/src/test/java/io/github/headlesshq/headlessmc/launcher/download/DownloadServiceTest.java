@@ -1,5 +1,6 @@
 package io.github.headlesshq.headlessmc.launcher.download;
 
+import com.sun.net.httpserver.HttpServer;
 import io.github.headlesshq.headlessmc.jline.JlineProgressbarProvider;
 import io.github.headlesshq.headlessmc.launcher.LauncherMock;
 import net.lenni0451.commons.httpclient.HttpResponse;
@@ -7,9 +8,22 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -41,6 +55,157 @@ public class DownloadServiceTest {
         assertSame(bytes, downloadService.download(new URL("http://example.com"), 4L, null));
     }
 
+    @Test
+    public void testDownloadToFile() throws IOException {
+        byte[] bytes = { 1, 2, 3, 4};
+        Set<InetSocketAddress> clients = ConcurrentHashMap.newKeySet();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            clients.add(exchange.getRemoteAddress());
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+
+        server.start();
+        try {
+            DownloadService downloadService = new DownloadService();
+            URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/file");
+            Path dir = Files.createTempDirectory("hmc-download-test");
+            Path file = dir.resolve("test");
+            String sha1 = "12dada1fff4d4787ade3333147202c3b443e376f";
+
+            assertThrows(IOException.class, () -> downloadService.downloadToFile(url, file, null, "wronghash"));
+            assertThrows(IOException.class, () -> downloadService.downloadToFile(url, file, 5L, null));
+            assertFalse(Files.exists(file));
+
+            downloadService.downloadToFile(url, file, 4L, sha1);
+            assertArrayEquals(bytes, Files.readAllBytes(file));
+            assertEquals(3, downloadService.getConnectionPool().getRequests());
+            // every request came from the same client socket, so the connection has been reused
+            assertEquals(1, clients.size(), clients.toString());
+            try (Stream<Path> stream = Files.list(dir)) {
+                assertEquals(1, stream.count(), "Temporary files should have been deleted");
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testConcurrentDownloadsAreCoalesced() throws Exception {
+        byte[] bytes = { 1, 2, 3, 4};
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch respond = new CountDownLatch(1);
+        ExecutorService serverExecutor = Executors.newCachedThreadPool();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            requested.countDown();
+            try {
+                respond.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+
+        server.start();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Path dir = Files.createTempDirectory("hmc-download-test");
+            CountDownLatch locking = new CountDownLatch(1);
+            DownloadService first = new DownloadService();
+            DownloadService second = new DownloadService() {
+                @Override
+                FileLocks.Lock lock(Path lockDirectory, Path file) throws IOException {
+                    // the destination has been checked, so the second download will find the file of the first one
+                    locking.countDown();
+                    return super.lock(lockDirectory, file);
+                }
+            };
+            first.setLockDirectory(dir.resolve("locks"));
+            second.setLockDirectory(dir.resolve("locks"));
+            URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/file");
+            Path file = dir.resolve("objects").resolve("test");
+            String sha1 = "12dada1fff4d4787ade3333147202c3b443e376f";
+
+            Future<?> firstDownload = executor.submit(() -> {
+                first.downloadToFile(url, file, 4L, sha1);
+                return null;
+            });
+
+            assertTrue(requested.await(10, TimeUnit.SECONDS));
+            // the second download waits for the lock held by the first one
+            Future<?> secondDownload = executor.submit(() -> {
+                second.downloadToFile(url, file, 4L, sha1);
+                return null;
+            });
+
+            assertTrue(locking.await(10, TimeUnit.SECONDS));
+            respond.countDown();
+            firstDownload.get(10, TimeUnit.SECONDS);
+            secondDownload.get(10, TimeUnit.SECONDS);
+            assertArrayEquals(bytes, Files.readAllBytes(file));
+            assertEquals(1, requests.get());
+        } finally {
+            respond.countDown();
+            executor.shutdownNow();
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLockFileName() {
+        Path file = Paths.get("objects", "ab", "abcdef");
+        assertEquals(DownloadService.getLockFileName(file), DownloadService.getLockFileName(file.toAbsolutePath()));
+        assertTrue(DownloadService.getLockFileName(file).matches("download-[0-9a-f]{2}\\.lock"));
+    }
+
+    @Test
+    public void testLockDirectoryIsBounded() throws IOException {
+        byte[] bytes = { 1, 2, 3, 4};
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+
+        server.start();
+        try {
+            Path dir = Files.createTempDirectory("hmc-download-test");
+            Path locks = dir.resolve("locks");
+            DownloadService downloadService = new DownloadService();
+            downloadService.setLockDirectory(locks);
+            URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/file");
+            int downloads = DownloadService.LOCK_STRIPES * 4;
+            for (int i = 0; i < downloads; i++) {
+                downloadService.downloadToFile(url, dir.resolve("objects").resolve("file-" + i), 4L, null);
+            }
+
+            try (Stream<Path> stream = Files.list(dir.resolve("objects"))) {
+                assertEquals(downloads, stream.count());
+            }
+
+            try (Stream<Path> stream = Files.list(locks)) {
+                long lockFiles = stream.count();
+                assertTrue(lockFiles > 0 && lockFiles <= DownloadService.LOCK_STRIPES, String.valueOf(lockFiles));
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
     // TODO: spin up simple http server and serve some files to check all download stuff?
     @Test
     @Disabled("downloads stuff")
@@ -0,0 +1,42 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileLocksTest {
+    @Test
+    public void testReentrant() throws Exception {
+        Path file = Files.createTempDirectory("hmc-lock-test").resolve("test.lock");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            FileLocks.Lock outer = FileLocks.lock(file);
+            // locking the channel twice would throw an OverlappingFileLockException
+            try (FileLocks.Lock inner = FileLocks.lock(file)) {
+                assertNotNull(inner);
+            }
+
+            Future<?> other = executor.submit(() -> {
+                try (FileLocks.Lock lock = FileLocks.lock(file)) {
+                    return lock;
+                }
+            });
+
+            // other threads still have to wait for the outer lock
+            assertThrows(TimeoutException.class, () -> other.get(100, TimeUnit.MILLISECONDS));
+            outer.close();
+            other.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstalledAssetsTest {
+    @Test
+    public void testScan() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-installed-assets-test");
+        Path assets = dir.resolve("assets");
+        Path resources = dir.resolve("resources");
+        create(assets.resolve("objects").resolve("ab").resolve("abcdef"));
+        create(assets.resolve("objects").resolve("ab").resolve("ab12341234.part"));
+        create(assets.resolve("objects").resolve("ab").resolve("cdef"));
+        create(assets.resolve("objects").resolve("cd").resolve("cd0123"));
+        create(assets.resolve("objects").resolve("ef"));
+        create(assets.resolve("virtual").resolve("legacy").resolve("sounds").resolve("a.ogg"));
+        create(resources.resolve("lang").resolve("en_US.lang"));
+
+        InstalledAssets installed = InstalledAssets.scan(assets, resources);
+        assertTrue(installed.hasObject("abcdef"));
+        assertTrue(installed.hasObject("cd0123"));
+        assertFalse(installed.hasObject("ab12341234"));
+        assertFalse(installed.hasObject("ab12341234.part"));
+        assertFalse(installed.hasObject("cdef")); // in the wrong shard
+        assertFalse(installed.hasObject("ef"));
+        assertTrue(installed.hasLegacy("sounds/a.ogg"));
+        assertFalse(installed.hasLegacy("sounds/b.ogg"));
+        assertTrue(installed.hasResource("lang/en_US.lang"));
+        assertFalse(installed.hasResource("sounds/a.ogg"));
+    }
+
+    @Test
+    public void testScanWithoutAssets() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-installed-assets-test");
+        InstalledAssets installed = InstalledAssets.scan(dir.resolve("assets"), dir.resolve("resources"));
+        assertFalse(installed.hasObject("abcdef"));
+        assertFalse(installed.hasLegacy("sounds/a.ogg"));
+        assertFalse(installed.hasResource("lang/en_US.lang"));
+    }
+
+    private static void create(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.createFile(file);
+    }
+
+}
@@ -4,6 +4,7 @@ import io.github.headlesshq.headlessmc.launcher.util.IOConsumer;
 import org.jetbrains.annotations.Nullable;
 
 import java.net.URL;
+import java.nio.file.Path;
 
 public class MockDownloadService extends DownloadService {
     @Override
@@ -11,4 +12,9 @@ public class MockDownloadService extends DownloadService {
         // NOP
     }
 
+    @Override
+    public void downloadToFile(URL from, Path to, @Nullable Long size, @Nullable String hash) {
+        // NOP
+    }
+
 }
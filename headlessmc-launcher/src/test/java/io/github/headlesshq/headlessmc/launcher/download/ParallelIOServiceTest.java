@@ -0,0 +1,76 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelIOServiceTest {
+    @Test
+    public void testConcurrencyIsIndependentOfCores() throws IOException {
+        int concurrency = 8;
+        CountDownLatch allInFlight = new CountDownLatch(concurrency);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ParallelIOService service = new ParallelIOService(0L, 1L, true, false);
+        service.setShouldLog(false);
+        service.setConcurrency(concurrency);
+        for (int i = 0; i < concurrency * 4; i++) {
+            service.addTask(progress -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                allInFlight.countDown();
+                try {
+                    // only completes if all tasks of the first batch run at the same time
+                    assertTrue(allInFlight.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+
+        service.execute();
+        assertEquals(concurrency, maxInFlight.get());
+    }
+
+    @Test
+    public void testRetries() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        ParallelIOService service = new ParallelIOService(1L, 3L, true, true);
+        service.setShouldLog(false);
+        service.addTask(progress -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IOException("Failed attempt");
+            }
+        });
+        service.addTask(progress -> {});
+
+        service.execute();
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testFailureCancelsRemainingTasks() {
+        AtomicInteger executed = new AtomicInteger();
+        ParallelIOService service = new ParallelIOService(0L, 1L, true, false);
+        service.setShouldLog(false);
+        service.setConcurrency(1);
+        service.addTask(progress -> {
+            throw new IOException("Failed");
+        });
+
+        for (int i = 0; i < 100; i++) {
+            service.addTask(progress -> executed.incrementAndGet());
+        }
+
+        IOException exception = assertThrows(IOException.class, service::execute);
+        assertEquals("Failed", exception.getMessage());
+        assertTrue(executed.get() < 100);
+    }
+
+}
@@ -0,0 +1,95 @@
+package io.github.headlesshq.headlessmc.launcher.download;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedFileIndexTest {
+    @Test
+    public void testVerifiedFilesAreNotHashedAgain() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-verified-file-index-test");
+        Path indexFile = dir.resolve("verified-files.txt");
+        Path file = dir.resolve("file");
+        byte[] bytes = "test data".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, bytes);
+
+        CountingChecksumService checksumService = new CountingChecksumService();
+        String hash = checksumService.hash(bytes);
+        VerifiedFileIndex index = new VerifiedFileIndex(checksumService, indexFile);
+        assertFalse(index.checkIntegrity(file, (long) bytes.length, "wronghash"));
+        assertEquals(1, checksumService.counter.get());
+        assertTrue(index.checkIntegrity(file, (long) bytes.length, hash));
+        assertEquals(2, checksumService.counter.get());
+        assertTrue(index.checkIntegrity(file, (long) bytes.length, hash));
+        assertEquals(2, checksumService.counter.get());
+        index.save();
+
+        // new index, loaded from disk
+        index = new VerifiedFileIndex(checksumService, indexFile);
+        assertTrue(index.checkIntegrity(file, (long) bytes.length, hash));
+        assertEquals(2, checksumService.counter.get());
+
+        // modifying the file invalidates the entry
+        Files.write(file, "test date".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000L));
+        assertFalse(index.checkIntegrity(file, (long) bytes.length, hash));
+        assertEquals(3, checksumService.counter.get());
+    }
+
+    @Test
+    public void testReverify() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-verified-file-index-test");
+        Path file = dir.resolve("file");
+        byte[] bytes = "test data".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, bytes);
+
+        CountingChecksumService checksumService = new CountingChecksumService();
+        VerifiedFileIndex index = new VerifiedFileIndex(checksumService, dir.resolve("verified-files.txt"));
+        index.markVerified(file, checksumService.hash(bytes));
+        assertEquals(0, index.reverify());
+        assertEquals(1, checksumService.counter.get());
+
+        index.markVerified(file, "wronghash");
+        assertEquals(1, index.reverify());
+    }
+
+    @Test
+    public void testReverifyInBackgroundSaves() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("hmc-verified-file-index-test");
+        Path file = dir.resolve("file");
+        byte[] bytes = "test data".getBytes(StandardCharsets.UTF_8);
+        Files.write(file, bytes);
+
+        CountingChecksumService checksumService = new CountingChecksumService();
+        VerifiedFileIndex index = new VerifiedFileIndex(checksumService, dir.resolve("verified-files.txt"));
+        index.markVerified(file, "wronghash");
+        index.save();
+        assertTrue(new String(Files.readAllBytes(index.getFile()), StandardCharsets.UTF_8).contains("wronghash"));
+
+        index.reverifyInBackground().join();
+        assertFalse(new String(Files.readAllBytes(index.getFile()), StandardCharsets.UTF_8).contains("wronghash"));
+        try (Stream<Path> stream = Files.list(dir)) {
+            assertEquals(2, stream.count(), "Temporary files should have been deleted");
+        }
+    }
+
+    private static final class CountingChecksumService extends ChecksumService {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public boolean checkIntegrity(Path path, @Nullable Long size, @Nullable String hash) throws IOException {
+            counter.incrementAndGet();
+            return super.checkIntegrity(path, size, hash);
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.headlesshq.headlessmc.launcher.instrumentation;
+
+import io.github.headlesshq.headlessmc.launcher.download.ChecksumService;
+import io.github.headlesshq.headlessmc.launcher.instrumentation.debug.DebugTransformer;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImplementationHashTest {
+    @Test
+    public void testJar() throws Exception {
+        Path jar = Paths.get(ClassReader.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        assertTrue(Files.isRegularFile(jar));
+        String expected = new ChecksumService().hash(Files.readAllBytes(jar));
+        assertEquals(expected, ImplementationHash.of(ClassReader.class));
+    }
+
+    @Test
+    public void testClass() {
+        String hash = ImplementationHash.of(ImplementationHashTest.class);
+        assertTrue(hash.matches("[0-9a-f]{40}"), hash);
+        assertEquals(hash, ImplementationHash.of(ImplementationHashTest.class));
+        assertTrue(new DebugTransformer().getCacheKey().contains(ImplementationHash.of(DebugTransformer.class)));
+    }
+
+    @Test
+    public void testDebugTransformerConfigurationIsPartOfTheKey() {
+        String key = new DebugTransformer().getCacheKey();
+        System.setProperty("hmc.debug.transformer.wait.time", "5");
+        try {
+            assertNotEquals(key, new DebugTransformer().getCacheKey());
+        } finally {
+            System.clearProperty("hmc.debug.transformer.wait.time");
+        }
+
+        assertEquals(key, new DebugTransformer().getCacheKey());
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.github.headlesshq.headlessmc.launcher.instrumentation;
+
+import io.github.headlesshq.headlessmc.launcher.instrumentation.lwjgl.HmcLwjglTransformer;
+import io.github.headlesshq.headlessmc.launcher.util.IOUtil;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Measures the throughput of the {@link Instrumentation} by transforming a generated LWJGL-like jar
+ * with the {@link HmcLwjglTransformer}, once on a single thread and once on all cores.
+ * Not a test, run the main method manually: {@code InstrumentationBenchmark [classes] [iterations]}.
+ */
+public class InstrumentationBenchmark {
+    public static void main(String[] args) throws IOException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path dir = Files.createTempDirectory("hmc-instrumentation-benchmark");
+        Path jar = dir.resolve("lwjgl-benchmark.jar");
+        createJar(jar, classes);
+        long size = Files.size(jar);
+        System.out.println("Jar: " + classes + " classes, " + classes + " resources, " + size / 1024 + "kb");
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, cores}) {
+            for (int i = -1; i < iterations; i++) { // first iteration is warmup
+                Path output = Files.createTempDirectory(dir, "output");
+                Instrumentation instrumentation = new Instrumentation(Collections.singletonList(new HmcLwjglTransformer()), output.toFile());
+                instrumentation.setThreads(threads);
+                long nanos = System.nanoTime();
+                instrumentation.instrument(new ArrayList<>(Collections.singletonList(new Target(false, jar.toString()))));
+                nanos = System.nanoTime() - nanos;
+                if (i >= 0) {
+                    double seconds = nanos / 1_000_000_000.0;
+                    System.out.printf("threads: %2d, %7.1fms, %8.1f entries/s, %6.1f mb/s%n",
+                                      threads, nanos / 1_000_000.0, classes * 2 / seconds, size / 1_000_000.0 / seconds);
+                }
+            }
+        }
+    }
+
+    private static void createJar(Path path, int classes) throws IOException {
+        Random random = new Random(0);
+        try (JarOutputStream jos = IOUtil.jarOutput(path.toFile())) {
+            for (int i = 0; i < classes; i++) {
+                jos.putNextEntry(new JarEntry("org/lwjgl/benchmark/Class" + i + ".class"));
+                jos.write(createClass("org/lwjgl/benchmark/Class" + i));
+                jos.closeEntry();
+
+                byte[] resource = new byte[2048];
+                random.nextBytes(resource);
+                jos.putNextEntry(new JarEntry("org/lwjgl/benchmark/resource" + i + ".bin"));
+                jos.write(resource);
+                jos.closeEntry();
+            }
+        }
+    }
+
+    private static byte[] createClass(String name) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+        for (int i = 0; i < 20; i++) {
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "method" + i, "(IJLjava/lang/String;)I", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ILOAD, 0);
+            mv.visitVarInsn(Opcodes.LLOAD, 1);
+            mv.visitInsn(Opcodes.L2I);
+            mv.visitInsn(Opcodes.IADD);
+            mv.visitInsn(Opcodes.IRETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+}
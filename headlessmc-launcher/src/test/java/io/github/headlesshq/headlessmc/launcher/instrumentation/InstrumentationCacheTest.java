@@ -0,0 +1,81 @@
+package io.github.headlesshq.headlessmc.launcher.instrumentation;
+
+import io.github.headlesshq.headlessmc.launcher.download.ChecksumService;
+import io.github.headlesshq.headlessmc.launcher.files.FileManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentationCacheTest {
+    @Test
+    public void testStoreAndRestore() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-instrumentation-cache-test");
+        InstrumentationCache cache = new InstrumentationCache(new ChecksumService(), FileManager.mkdir(dir.resolve("cache").toString()), 1_000_000L);
+        Path input = dir.resolve("input.jar");
+        Files.write(input, "input".getBytes(StandardCharsets.UTF_8));
+        Target target = new Target(false, input.toString());
+
+        List<Transformer> transformers = Arrays.asList(new TestTransformer("a"), new TestTransformer("b"));
+        String key = cache.getKey(target, transformers);
+        assertEquals(key, cache.getKey(target, transformers));
+        assertNotEquals(key, cache.getKey(target, Arrays.asList(transformers.get(1), transformers.get(0))));
+        assertNotEquals(key, cache.getKey(target, Collections.singletonList(transformers.get(0))));
+
+        Path launch = Files.createDirectories(dir.resolve("launch"));
+        File output = launch.resolve("input.jar").toFile();
+        assertFalse(cache.restore(key, output));
+        Files.write(output.toPath(), "transformed".getBytes(StandardCharsets.UTF_8));
+        cache.store(key, output);
+
+        Files.delete(output.toPath());
+        assertTrue(cache.restore(key, output));
+        assertEquals("transformed", new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-instrumentation-cache-test");
+        InstrumentationCache cache = new InstrumentationCache(new ChecksumService(), FileManager.mkdir(dir.resolve("cache").toString()), 25L);
+        Path launch = Files.createDirectories(dir.resolve("launch"));
+        String[] keys = new String[3];
+        for (int i = 0; i < keys.length; i++) {
+            Path jar = launch.resolve(i + ".jar");
+            Files.write(jar, "0123456789".getBytes(StandardCharsets.UTF_8));
+            keys[i] = cache.getKey(new Target(false, jar.toString()), Collections.singletonList(new TestTransformer(String.valueOf(i))));
+            cache.store(keys[i], jar.toFile());
+            Files.delete(jar);
+            // make sure the entries have different modification times
+            File entry = dir.resolve("cache").resolve(keys[i]).toFile();
+            assertTrue(entry.setLastModified(1_000_000L * (i + 1)));
+        }
+
+        // 3 entries with 10 bytes each, only 2 fit
+        cache.evict();
+        assertFalse(cache.restore(keys[0], launch.resolve("0.jar").toFile()));
+        assertTrue(cache.restore(keys[1], launch.resolve("1.jar").toFile()));
+        assertTrue(cache.restore(keys[2], launch.resolve("2.jar").toFile()));
+    }
+
+    private static final class TestTransformer extends AbstractTransformer {
+        private final String id;
+
+        private TestTransformer(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getCacheKey() {
+            return id;
+        }
+    }
+
+}
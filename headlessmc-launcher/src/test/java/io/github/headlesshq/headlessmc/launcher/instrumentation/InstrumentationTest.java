@@ -0,0 +1,105 @@
+package io.github.headlesshq.headlessmc.launcher.instrumentation;
+
+import io.github.headlesshq.headlessmc.launcher.util.IOUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentationTest {
+    @Test
+    public void testParallelTransformationKeepsOrder() throws IOException {
+        testTransformation(false, ZipEntry.DEFLATED);
+    }
+
+    @Test
+    public void testStoreUntransformed() throws IOException {
+        testTransformation(true, ZipEntry.STORED);
+    }
+
+    private void testTransformation(boolean storeUntransformed, int untransformedMethod) throws IOException {
+        Path dir = Files.createTempDirectory("hmc-instrumentation-test");
+        Path input = dir.resolve("input.jar");
+        List<String> names = new ArrayList<>();
+        try (JarOutputStream jos = IOUtil.jarOutput(input.toFile())) {
+            for (int i = 0; i < 100; i++) {
+                String name = i % 3 == 0 ? "resource" + i + ".bin" : "text" + i + ".txt";
+                names.add(name);
+                jos.putNextEntry(new JarEntry(name));
+                jos.write(("entry " + i).getBytes(StandardCharsets.UTF_8));
+                jos.closeEntry();
+            }
+
+            jos.putNextEntry(new JarEntry("skip.txt"));
+            jos.closeEntry();
+        }
+
+        Path output = Files.createDirectories(dir.resolve("output"));
+        UpperCaseTransformer transformer = new UpperCaseTransformer();
+        Instrumentation instrumentation = new Instrumentation(Collections.singletonList(transformer), output.toFile());
+        instrumentation.setThreads(4);
+        instrumentation.setStoreUntransformed(storeUntransformed);
+        List<String> classpath = instrumentation.instrument(new ArrayList<>(Collections.singletonList(new Target(false, input.toString()))));
+        assertEquals(1, classpath.size());
+        assertEquals(output.resolve("input.jar").toFile().getAbsolutePath(), classpath.get(0));
+        assertTrue(transformer.hasRun());
+
+        try (JarFile jar = new JarFile(new File(classpath.get(0)))) {
+            List<String> actual = new ArrayList<>();
+            for (Enumeration<JarEntry> e = jar.entries(); e.hasMoreElements(); ) {
+                JarEntry entry = e.nextElement();
+                actual.add(entry.getName());
+                String content = new String(IOUtil.toBytes(jar.getInputStream(entry)), StandardCharsets.UTF_8);
+                int i = Integer.parseInt(entry.getName().replaceAll("\\D", ""));
+                if (entry.getName().endsWith(".txt")) {
+                    assertEquals("ENTRY " + i, content);
+                } else {
+                    assertEquals("entry " + i, content);
+                    assertEquals(untransformedMethod, entry.getMethod());
+                }
+            }
+
+            assertEquals(names, actual);
+        }
+    }
+
+    private static final class UpperCaseTransformer extends AbstractTransformer {
+        @Override
+        public boolean matchesEntry(String name) {
+            return name.endsWith(".txt");
+        }
+
+        @Override
+        public EntryStream transform(EntryStream stream) throws IOException {
+            assertTrue(stream.getEntry().getName().endsWith(".txt"));
+            if ("skip.txt".equals(stream.getEntry().getName())) {
+                stream.setSkipped(true);
+                return stream;
+            }
+
+            setRun(true);
+            String content = new String(IOUtil.toBytes(stream.getStream()), StandardCharsets.UTF_8);
+            return EntryStream.of(content.toUpperCase(Locale.ENGLISH).getBytes(StandardCharsets.UTF_8), stream.getTargets(), stream.getEntry());
+        }
+
+        @Override
+        public boolean matches(Target target) {
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package io.github.headlesshq.headlessmc.launcher.launch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LaunchTimingsTest {
+    @Test
+    public void testCriticalStage() throws Exception {
+        LaunchTimings timings = new LaunchTimings();
+        assertNull(timings.getCriticalStage());
+        assertEquals("result", timings.time("classpath", "process libraries", () -> "result"));
+        timings.time("assets", "download assets", () -> {
+            sleep();
+            return null;
+        });
+
+        assertEquals("assets", timings.getCriticalStage());
+        assertThrows(IOException.class, () -> timings.time("specifics", "download specifics", () -> {
+            sleep();
+            throw new IOException("failed");
+        }));
+
+        // failed phases are recorded, too
+        assertEquals("specifics", timings.getCriticalStage());
+        String report = timings.report();
+        assertTrue(report.contains("process libraries"));
+        assertTrue(report.contains("download assets"));
+        assertTrue(report.contains("critical path: specifics"));
+    }
+
+    private static void sleep() throws IOException {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
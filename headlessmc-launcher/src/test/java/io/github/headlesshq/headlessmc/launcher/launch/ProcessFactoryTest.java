@@ -2,21 +2,40 @@ package io.github.headlesshq.headlessmc.launcher.launch;
 
 import lombok.SneakyThrows;
 import lombok.val;
+import io.github.headlesshq.headlessmc.launcher.Launcher;
 import io.github.headlesshq.headlessmc.launcher.LauncherMock;
+import io.github.headlesshq.headlessmc.launcher.download.DownloadService;
 import io.github.headlesshq.headlessmc.launcher.download.MockDownloadService;
+import io.github.headlesshq.headlessmc.launcher.files.FileManager;
+import io.github.headlesshq.headlessmc.launcher.instrumentation.Target;
+import io.github.headlesshq.headlessmc.launcher.version.Extractor;
+import io.github.headlesshq.headlessmc.launcher.version.Library;
+import io.github.headlesshq.headlessmc.launcher.version.Rule;
+import io.github.headlesshq.headlessmc.launcher.version.Version;
+import io.github.headlesshq.headlessmc.launcher.version.VersionImpl;
 import io.github.headlesshq.headlessmc.os.OS;
+import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ProcessFactoryTest {
+    private static final OS OS_LINUX = new OS("linux", OS.Type.LINUX, "6", "x64", true);
+
     @Test
     @SneakyThrows
     public void testCheckZipIntact() {
@@ -59,4 +78,164 @@ public class ProcessFactoryTest {
         assertTrue(processFactory.checkZipIntact(valid));
     }
 
+    @Test
+    public void testProcessLibrariesInParallel() throws IOException {
+        int count = 4;
+        // the latches only open if all downloads and all extractions run at the same time
+        CountDownLatch downloads = new CountDownLatch(count);
+        CountDownLatch extractions = new CountDownLatch(count);
+        DownloadService downloadService = new DownloadService() {
+            @Override
+            public void downloadToFile(URL from, Path to, @Nullable Long size, @Nullable String hash) throws IOException {
+                await(downloads);
+                Files.createDirectories(to.getParent());
+                Files.write(to, new byte[0]);
+            }
+        };
+
+        Launcher launcher = LauncherMock.create();
+        ProcessFactory processFactory = new ProcessFactory(downloadService, launcher.getLauncherConfig(), OS_LINUX);
+        List<Library> libraries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = "lib-" + i;
+            libraries.add(new TestLibrary(name, false, (from, fileManager) -> {
+                await(extractions);
+                Files.write(fileManager.create(name + ".so").toPath(), new byte[0]);
+            }));
+        }
+
+        FileManager natives = FileManager.forPath(Files.createTempDirectory("hmc-natives-test").toString());
+        List<Target> targets = processFactory.processLibraries(options(launcher), version(libraries), natives);
+
+        // the classpath keeps the order of the libraries
+        assertEquals(count, targets.size());
+        for (int i = 0; i < count; i++) {
+            Path expected = launcher.getMcFiles().getDir("libraries").toPath().resolve("test").resolve("lib-" + i + ".jar");
+            assertEquals(expected.toAbsolutePath().toString(), targets.get(i).getPath());
+            assertTrue(Files.exists(expected));
+            assertTrue(Files.exists(natives.getBase().toPath().resolve("lib-" + i + ".so")));
+        }
+    }
+
+    @Test
+    public void testProcessLibrariesDownloadFailure() {
+        DownloadService downloadService = new DownloadService() {
+            @Override
+            public void downloadToFile(URL from, Path to, @Nullable Long size, @Nullable String hash) throws IOException {
+                if (from.getPath().endsWith("lib-2.jar")) {
+                    throw new IOException("Failed to download lib-2");
+                }
+            }
+        };
+
+        Launcher launcher = LauncherMock.create();
+        ProcessFactory processFactory = new ProcessFactory(downloadService, launcher.getLauncherConfig(), OS_LINUX);
+        List<Library> libraries = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            libraries.add(new TestLibrary("lib-" + i, false, Extractor.NO_EXTRACTION));
+        }
+
+        IOException exception = assertThrows(IOException.class, () -> processFactory.processLibraries(
+            options(launcher), version(libraries), launcher.getFileManager().createRelative("natives")));
+        assertEquals("Failed to download lib-2", exception.getMessage());
+    }
+
+    @Test
+    public void testProcessLibrariesExtractionFailure() {
+        Launcher launcher = LauncherMock.create();
+        ProcessFactory processFactory = new ProcessFactory(new MockDownloadService(), launcher.getLauncherConfig(), OS_LINUX);
+        List<Library> libraries = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String name = "lib-" + i;
+            libraries.add(new TestLibrary(name, true, (from, fileManager) -> {
+                if (name.equals("lib-1")) {
+                    throw new IOException("Failed to extract " + name);
+                }
+            }));
+        }
+
+        IOException exception = assertThrows(IOException.class, () -> processFactory.processLibraries(
+            options(launcher), version(libraries), launcher.getFileManager().createRelative("natives")));
+        assertEquals("Failed to extract lib-1", exception.getMessage());
+    }
+
+    private static LaunchOptions options(Launcher launcher) {
+        return LaunchOptions.builder().launcher(launcher).build();
+    }
+
+    private static Version version(List<Library> libraries) {
+        return VersionImpl.builder().name("test").libraries(libraries).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class TestLibrary implements Library {
+        private final String name;
+        private final boolean nativeLibrary;
+        private final Extractor extractor;
+
+        private TestLibrary(String name, boolean nativeLibrary, Extractor extractor) {
+            this.name = name;
+            this.nativeLibrary = nativeLibrary;
+            this.extractor = new Extractor() {
+                @Override
+                public void extract(String from, FileManager fileManager) throws IOException {
+                    extractor.extract(from, fileManager);
+                }
+
+                @Override
+                public boolean isExtracting() {
+                    return extractor != Extractor.NO_EXTRACTION;
+                }
+            };
+        }
+
+        @Override
+        public String getName() {
+            return "test:" + name + ":1";
+        }
+
+        @Override
+        public String getPath(OS os) {
+            return "test" + File.separator + name + ".jar";
+        }
+
+        @Override
+        public Rule getRule() {
+            return Rule.ALLOW;
+        }
+
+        @Override
+        public Extractor getExtractor() {
+            return extractor;
+        }
+
+        @Override
+        public String getUrl(String path) {
+            return "https://example.com/" + path.replace(File.separatorChar, '/');
+        }
+
+        @Override
+        public @Nullable String getSha1() {
+            return null;
+        }
+
+        @Override
+        public @Nullable Long getSize() {
+            return null;
+        }
+
+        @Override
+        public boolean isNativeLibrary() {
+            return nativeLibrary;
+        }
+    }
+
 }
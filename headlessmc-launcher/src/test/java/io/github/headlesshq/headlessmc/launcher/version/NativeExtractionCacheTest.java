@@ -0,0 +1,87 @@
+package io.github.headlesshq.headlessmc.launcher.version;
+
+import io.github.headlesshq.headlessmc.launcher.files.FileManager;
+import io.github.headlesshq.headlessmc.os.OS;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NativeExtractionCacheTest {
+    @Test
+    public void testExtract() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-native-cache-test");
+        Path jar = dir.resolve("natives.jar");
+        try (ZipOutputStream os = new ZipOutputStream(Files.newOutputStream(jar))) {
+            write(os, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0");
+            write(os, "lib.so", "native");
+            write(os, "sub/other.so", "other");
+        }
+
+        AtomicInteger extractions = new AtomicInteger();
+        ExtractorImpl delegate = new ExtractorImpl(Collections.singletonList("META-INF/"));
+        Extractor extractor = new Extractor() {
+            @Override
+            public void extract(String from, FileManager fileManager) throws IOException {
+                extractions.incrementAndGet();
+                delegate.extract(from, fileManager);
+            }
+
+            @Override
+            public boolean shouldExtract(String name) {
+                return delegate.shouldExtract(name);
+            }
+
+            @Override
+            public boolean isExtracting() {
+                return true;
+            }
+        };
+
+        LibraryImpl library = new LibraryImpl(
+            Collections.emptyMap(), extractor, "test:test:test", Rule.ALLOW,
+            "baseUrl", "ABCDEF", null, "url", null, true);
+        OS os = new OS("linux", OS.Type.LINUX, "6", "x64", true);
+        NativeExtractionCache cache = new NativeExtractionCache(dir.resolve("cache"), os);
+
+        Path first = dir.resolve("first");
+        cache.extract(library, jar, FileManager.forPath(first.toString()));
+        assertEquals(1, extractions.get());
+        assertContents(first);
+
+        Path second = dir.resolve("second");
+        cache.extract(library, jar, FileManager.forPath(second.toString()));
+        assertEquals(1, extractions.get());
+        assertContents(second);
+
+        // a damaged cache entry is extracted again
+        Path entry = dir.resolve("cache").resolve("abcdef-linux-x64-64");
+        Files.write(entry.resolve("lib.so"), "broken native".getBytes(StandardCharsets.UTF_8));
+        Path third = dir.resolve("third");
+        cache.extract(library, jar, FileManager.forPath(third.toString()));
+        assertEquals(2, extractions.get());
+        assertContents(third);
+    }
+
+    private static void assertContents(Path dir) throws IOException {
+        assertEquals("native", new String(Files.readAllBytes(dir.resolve("lib.so")), StandardCharsets.UTF_8));
+        assertEquals("other", new String(Files.readAllBytes(dir.resolve("sub").resolve("other.so")), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("META-INF")));
+    }
+
+    private static void write(ZipOutputStream os, String name, String content) throws IOException {
+        os.putNextEntry(new ZipEntry(name));
+        os.write(content.getBytes(StandardCharsets.UTF_8));
+        os.closeEntry();
+    }
+
+}
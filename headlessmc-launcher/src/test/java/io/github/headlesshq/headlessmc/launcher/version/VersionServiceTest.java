@@ -0,0 +1,203 @@
+package io.github.headlesshq.headlessmc.launcher.version;
+
+import io.github.headlesshq.headlessmc.launcher.files.ConfigService;
+import io.github.headlesshq.headlessmc.launcher.files.FileManager;
+import io.github.headlesshq.headlessmc.launcher.files.LauncherConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionServiceTest {
+    @Test
+    public void testIncrementalRefresh() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-version-service-test");
+        FileManager mcFiles = FileManager.mkdir(dir.resolve("mc").toString());
+        LauncherConfig launcherConfig = new LauncherConfig(new ConfigService(FileManager.mkdir(dir.resolve("hmc").toString())), mcFiles, mcFiles);
+        Path versions = mcFiles.getDir("versions").toPath();
+        write(versions, "Parent", "{\"id\": \"Parent\"}", 1_000L);
+        write(versions, "child", "{\"id\": \"child\", \"inheritsFrom\": \"Parent\"}", 1_000L);
+        write(versions, "other", "{\"id\": \"other\"}", 1_000L);
+
+        VersionService service = new VersionService(launcherConfig);
+        Version parent = service.getVersionByName("parent");
+        Version child = service.getVersionByName("CHILD");
+        Version other = service.getVersionByName("other");
+        assertNotNull(parent);
+        assertNotNull(child);
+        assertNotNull(other);
+        assertEquals("Parent", parent.getName());
+        assertSame(parent, child.getParent());
+        assertEquals(3, service.size());
+
+        // nothing changed, the versions are reused
+        service.refresh();
+        assertSame(parent, service.getVersionByName("Parent"));
+        assertSame(child, service.getVersionByName("child"));
+
+        // the parent changed, so the child has to be resolved again
+        write(versions, "Parent", "{\"id\": \"Parent\", \"type\": \"release\"}", 2_000L);
+        service.refresh();
+        Version newParent = service.getVersionByName("Parent");
+        assertNotNull(newParent);
+        assertNotSame(parent, newParent);
+        assertEquals("release", newParent.getType());
+        assertSame(child, service.getVersionByName("child"));
+        assertSame(newParent, child.getParent());
+        assertSame(other, service.getVersionByName("other"));
+        assertNotEquals(newParent.getId(), other.getId());
+
+        // without its parent the child is invalid
+        Files.delete(versions.resolve("Parent").resolve("Parent.json"));
+        service.refresh();
+        assertNull(service.getVersionByName("Parent"));
+        assertNull(service.getVersionByName("child"));
+        assertEquals(1, service.size());
+
+        // and valid again once the parent comes back
+        write(versions, "Parent", "{\"id\": \"Parent\"}", 3_000L);
+        service.refresh();
+        assertEquals(3, service.size());
+        assertSame(service.getVersionByName("Parent"), service.getVersionByName("child").getParent());
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-version-service-test");
+        FileManager mcFiles = FileManager.mkdir(dir.resolve("mc").toString());
+        FileManager hmcFiles = FileManager.mkdir(dir.resolve("hmc").toString());
+        LauncherConfig launcherConfig = new LauncherConfig(new ConfigService(hmcFiles), mcFiles, mcFiles);
+        Path versions = mcFiles.getDir("versions").toPath();
+        write(versions, "parent", "{\"id\": \"parent\", \"type\": \"release\", \"mainClass\": \"Main\", \"javaVersion\": {\"majorVersion\": 17}, \"libraries\": []}", 1_000L);
+        write(versions, "child", "{\"id\": \"child\", \"inheritsFrom\": \"parent\", \"assets\": \"1.20\"}", 1_000L);
+
+        VersionService service = new VersionService(launcherConfig);
+        Version parent = service.getVersionByName("parent");
+        Version child = service.getVersionByName("child");
+        assertNotNull(parent);
+        assertNotNull(child);
+        assertTrue(hmcFiles.getDir("cache").toPath().resolve("versions.bin").toFile().isFile());
+
+        // a new service reads the versions from the snapshot without parsing them
+        VersionService warm = new VersionService(launcherConfig);
+        Version snapshotParent = warm.getVersionByName("parent");
+        Version snapshotChild = warm.getVersionByName("child");
+        assertInstanceOf(SnapshotVersion.class, snapshotParent);
+        assertInstanceOf(SnapshotVersion.class, snapshotChild);
+        assertEquals(parent.getId(), snapshotParent.getId());
+        assertEquals("release", snapshotParent.getType());
+        assertEquals("Main", snapshotParent.getMainClass());
+        assertEquals(Integer.valueOf(17), snapshotParent.getJava());
+        assertNull(snapshotParent.getParentName());
+        assertEquals("1.20", snapshotChild.getAssets());
+        assertSame(snapshotParent, snapshotChild.getParent());
+        assertFalse(((SnapshotVersion) snapshotParent).isParsed());
+
+        // deeper fields parse the json on demand
+        assertTrue(snapshotParent.getLibraries().isEmpty());
+        assertTrue(((SnapshotVersion) snapshotParent).isParsed());
+        assertEquals("parent", snapshotParent.getJson().get("id").getAsString());
+        assertFalse(((SnapshotVersion) snapshotChild).isParsed());
+
+        // changed files are parsed again and keep their ids
+        write(versions, "child", "{\"id\": \"child\", \"inheritsFrom\": \"parent\", \"assets\": \"1.21\"}", 2_000L);
+        warm.refresh();
+        Version newChild = warm.getVersionByName("child");
+        assertNotNull(newChild);
+        assertFalse(newChild instanceof SnapshotVersion);
+        assertEquals("1.21", newChild.getAssets());
+        assertSame(snapshotParent, newChild.getParent());
+        assertEquals(child.getId(), newChild.getId());
+
+        // an unreadable snapshot is ignored
+        Files.write(hmcFiles.getDir("cache").toPath().resolve("versions.bin"), new byte[]{1, 2, 3});
+        VersionService broken = new VersionService(launcherConfig);
+        assertEquals(2, broken.size());
+        assertFalse(broken.getVersionByName("parent") instanceof SnapshotVersion);
+    }
+
+    @Test
+    public void testSnapshotFileChanged() throws IOException, VersionParseException {
+        Path dir = Files.createTempDirectory("hmc-version-service-test");
+        FileManager mcFiles = FileManager.mkdir(dir.resolve("mc").toString());
+        LauncherConfig launcherConfig = new LauncherConfig(new ConfigService(FileManager.mkdir(dir.resolve("hmc").toString())), mcFiles, mcFiles);
+        Path versions = mcFiles.getDir("versions").toPath();
+        write(versions, "parent", "{\"id\": \"parent\", \"libraries\": []}", 1_000L);
+        write(versions, "child", "{\"id\": \"child\", \"inheritsFrom\": \"parent\"}", 1_000L);
+        new VersionService(launcherConfig).refresh();
+
+        VersionService warm = new VersionService(launcherConfig);
+        Version parent = warm.getVersionByName("parent");
+        Version child = warm.getVersionByName("child");
+        assertInstanceOf(SnapshotVersion.class, parent);
+        assertInstanceOf(SnapshotVersion.class, child);
+
+        // the parent changes after the versions have been refreshed, its json must not be parsed
+        write(versions, "parent", "{\"id\": \"parent\", \"libraries\": [], \"type\": \"release\"}", 2_000L);
+        VersionParseException e = assertThrows(VersionParseException.class, () -> VersionUtil.load(child));
+        assertTrue(e.getMessage().contains("versions -refresh"));
+        assertThrows(IllegalStateException.class, parent::getLibraries);
+        assertFalse(((SnapshotVersion) parent).isParsed());
+
+        // an unreadable json fails the same way
+        Files.delete(versions.resolve("child").resolve("child.json"));
+        assertThrows(VersionParseException.class, ((SnapshotVersion) child)::load);
+
+        write(versions, "child", "{\"id\": \"child\", \"inheritsFrom\": \"parent\"}", 1_000L);
+        warm.refresh();
+        Version newChild = warm.getVersionByName("child");
+        assertNotNull(newChild);
+        VersionUtil.load(newChild);
+        assertEquals("release", newChild.getParent().getType());
+        assertTrue(newChild.getParent().getLibraries().isEmpty());
+    }
+
+    @Test
+    public void testIdsAreStable() throws IOException {
+        Path dir = Files.createTempDirectory("hmc-version-service-test");
+        FileManager mcFiles = FileManager.mkdir(dir.resolve("mc").toString());
+        LauncherConfig launcherConfig = new LauncherConfig(new ConfigService(FileManager.mkdir(dir.resolve("hmc").toString())), mcFiles, mcFiles);
+        Path versions = mcFiles.getDir("versions").toPath();
+        write(versions, "a", "{\"id\": \"a\"}", 1_000L);
+        write(versions, "b", "{\"id\": \"b\"}", 1_000L);
+        write(versions, "c", "{\"id\": \"c\"}", 1_000L);
+
+        VersionService service = new VersionService(launcherConfig);
+        int a = service.getVersionByName("a").getId();
+        int b = service.getVersionByName("b").getId();
+        int c = service.getVersionByName("c").getId();
+        assertEquals(3, new HashSet<>(Arrays.asList(a, b, c)).size());
+
+        // changing, removing and adding versions does not change the ids of the others
+        write(versions, "a", "{\"id\": \"a\", \"type\": \"release\"}", 2_000L);
+        Files.delete(versions.resolve("b").resolve("b.json"));
+        write(versions, "d", "{\"id\": \"d\"}", 1_000L);
+        service.refresh();
+        assertEquals(a, service.getVersionByName("a").getId());
+        assertEquals(c, service.getVersionByName("c").getId());
+        int d = service.getVersionByName("d").getId();
+        assertEquals(4, new HashSet<>(Arrays.asList(a, b, c, d)).size());
+
+        // the ids survive restarts, new versions still get unused ids
+        VersionService restarted = new VersionService(launcherConfig);
+        write(versions, "e", "{\"id\": \"e\"}", 1_000L);
+        assertEquals(a, restarted.getVersionByName("a").getId());
+        assertEquals(c, restarted.getVersionByName("c").getId());
+        assertEquals(d, restarted.getVersionByName("d").getId());
+        int e = restarted.getVersionByName("e").getId();
+        assertEquals(5, new HashSet<>(Arrays.asList(a, b, c, d, e)).size());
+    }
+
+    private static void write(Path versions, String name, String json, long lastModified) throws IOException {
+        Path file = Files.createDirectories(versions.resolve(name)).resolve(name + ".json");
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.toFile().setLastModified(lastModified));
+    }
+
+}
@@ -2,6 +2,11 @@ package io.github.headlesshq.headlessmc.lwjgl;
 
 public interface LwjglProperties {
     String DISPLAY_UPDATE = "hmc.lwjgl.update_sleep";
+    String FPS = "hmc.lwjgl.fps";
+    String GLFW_PACING = "hmc.lwjgl.glfw.pacing";
+    String IDLE = "hmc.lwjgl.idle";
+    String IDLE_FPS = "hmc.lwjgl.idle.fps";
+    String FRAME_STATISTICS = "hmc.lwjgl.frame.statistics";
     String GL_TEXTURE_INTERNAL_FORMAT = "hmc.lwjgl.gltextureinternalformat";
     String TEXTURE_SIZE = "hmc.lwjgl.texturesize";
     String FULLSCREEN = "hmc.lwjgl.fullscreen";
@@ -12,6 +17,16 @@ public interface LwjglProperties {
     String JNI_VERSION = "hmc.lwjgl.nativejniversion";
     String UNIFORM_OFFSET_ALIGNMENT = "hmc.lwjgl.uniformoffsetalignment";
     String NO_AWT = "hmc.lwjgl.no.awt";
+    String STB_HEADER_ONLY = "hmc.lwjgl.stb.header.only";
+    String INVOKE_DYNAMIC = "hmc.lwjgl.invokedynamic";
+    String CONSTANT_STUBS = "hmc.lwjgl.constant.stubs";
+    String BUFFER_POOL = "hmc.lwjgl.buffer.pool";
+    String BUFFER_POOL_MAX_BYTES = "hmc.lwjgl.buffer.pool.max.bytes";
+    String BUFFER_STATISTICS = "hmc.lwjgl.buffer.statistics";
+    String PROXY_SINGLETONS = "hmc.lwjgl.proxy.singletons";
+    String PROFILER = "hmc.lwjgl.profiler";
+    String PROFILER_SAMPLE = "hmc.lwjgl.profiler.sample";
+    String PROFILER_TOP = "hmc.lwjgl.profiler.top";
 
     String TWEAKER_MAIN_CLASS = "hmc.tweaker.main.class";
 
@@ -1,12 +1,16 @@
 package io.github.headlesshq.headlessmc.lwjgl;
 
 import io.github.headlesshq.headlessmc.lwjgl.api.Redirection;
+import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionHandles;
 import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionManager;
 import io.github.headlesshq.headlessmc.lwjgl.redirections.CastRedirection;
 import io.github.headlesshq.headlessmc.lwjgl.redirections.DefaultRedirections;
 import io.github.headlesshq.headlessmc.lwjgl.redirections.LwjglRedirections;
 import io.github.headlesshq.headlessmc.lwjgl.redirections.ObjectRedirection;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SwitchPoint;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -15,14 +19,61 @@ public class RedirectionManagerImpl implements RedirectionManager {
     private final Map<String, Redirection> redirects = new HashMap<>();
     private final Redirection object = new ObjectRedirection(this);
     private final Redirection cast = new CastRedirection(this);
+    // guards linked call sites, once a redirection gets registered after
+    // linking they fall back to looking up their redirection on every call
+    private SwitchPoint linked;
+    private final RedirectionProfiler profiler;
 
     public RedirectionManagerImpl() {
+        this(RedirectionProfiler.INSTANCE);
+    }
+
+    RedirectionManagerImpl(RedirectionProfiler profiler) {
+        this.profiler = profiler;
         LwjglRedirections.register(this);
     }
 
     @Override
-    public void redirect(String desc, Redirection redirection) {
+    public synchronized void redirect(String desc, Redirection redirection) {
         redirects.put(desc, redirection);
+        if (linked != null) {
+            SwitchPoint.invalidateAll(new SwitchPoint[]{linked});
+            linked = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRedirected(String desc) {
+        return redirects.containsKey(desc);
+    }
+
+    @Override
+    public synchronized MethodHandle link(Class<?> caller, String desc,
+                                          MethodType type, boolean isStatic)
+        throws Throwable {
+        Redirection redirection = redirects.get(desc);
+        boolean fallback = redirection == null;
+        if (fallback) {
+            redirection = getFallback(desc, type.returnType());
+        }
+
+        MethodHandle target;
+        if (profiler.isEnabled()) {
+            // constants are not folded either, so that their calls get recorded
+            target = RedirectionHandles.invoker(profiler.wrap(redirection, fallback), caller, desc, type, isStatic);
+        } else if (DefaultRedirections.isConstant(redirection)) {
+            Object value = redirection.invoke(caller, desc, type.returnType());
+            target = RedirectionHandles.constant(value, type);
+        } else {
+            target = RedirectionHandles.invoker(redirection, caller, desc, type, isStatic);
+        }
+
+        if (linked == null) {
+            linked = new SwitchPoint();
+        }
+
+        return linked.guardWithTest(
+            target, RedirectionHandles.invoker(this, caller, desc, type, isStatic));
     }
 
     @Override
@@ -36,10 +87,15 @@ public class RedirectionManagerImpl implements RedirectionManager {
                          Supplier<Redirection> fb, Object... args)
         throws Throwable {
         Redirection redirection = redirects.get(desc);
-        if (redirection == null) {
+        boolean fallback = redirection == null;
+        if (fallback) {
             redirection = fb.get();
         }
 
+        if (profiler.isEnabled()) {
+            return profiler.invoke(redirection, fallback, obj, desc, type, args);
+        }
+
         return redirection.invoke(obj, desc, type, args);
     }
 
@@ -0,0 +1,232 @@
+package io.github.headlesshq.headlessmc.lwjgl;
+
+import io.github.headlesshq.headlessmc.lwjgl.api.Redirection;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records which redirections get called by the game, enabled with {@link LwjglProperties#PROFILER}.
+ * <p>For every descriptor the calls and the calls which went to a fallback redirection are counted.
+ * The latency and, if the JVM supports it, the bytes allocated by the calling thread are measured
+ * for every n-th call, configured by {@link LwjglProperties#PROFILER_SAMPLE}.
+ * A report of the most called descriptors is printed when the game exits, see
+ * {@link io.github.headlesshq.headlessmc.lwjgl.redirections.LwjglRedirections#addShutdownHooks()},
+ * or can be requested via {@link #getReport(int)}.
+ * <p>Methods stubbed by the transformer ({@link LwjglProperties#CONSTANT_STUBS}) never reach the redirection api
+ * and are therefore not recorded.
+ */
+public final class RedirectionProfiler {
+    public static final RedirectionProfiler INSTANCE = fromProperties();
+
+    private static final int BUCKETS = 64;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int sampleRate;
+    private final @Nullable AllocationCounter allocationCounter;
+
+    public RedirectionProfiler(boolean enabled, int sampleRate) {
+        this.enabled = enabled;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.allocationCounter = enabled ? AllocationCounter.create() : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Invokes the given redirection and records the call.
+     *
+     * @param redirection the redirection to invoke.
+     * @param fallback    {@code true} if the redirection is a fallback and not registered for the descriptor.
+     * @param obj         the object the method has been called on.
+     * @param desc        the descriptor of the called method.
+     * @param type        the return type of the method.
+     * @param args        the arguments of the call.
+     * @return the result of the redirection.
+     * @throws Throwable if the redirection throws.
+     */
+    public Object invoke(Redirection redirection, boolean fallback, Object obj, String desc, Class<?> type, Object... args)
+        throws Throwable {
+        Stats stats = getStats(desc);
+        stats.calls.increment();
+        if (fallback) {
+            stats.fallbacks.increment();
+        }
+
+        if (sampleRate != 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return redirection.invoke(obj, desc, type, args);
+        }
+
+        long bytes = allocationCounter == null ? 0L : allocationCounter.getAllocatedBytes();
+        long start = System.nanoTime();
+        try {
+            return redirection.invoke(obj, desc, type, args);
+        } finally {
+            long time = System.nanoTime() - start;
+            stats.sample(time, allocationCounter == null ? 0L : allocationCounter.getAllocatedBytes() - bytes);
+        }
+    }
+
+    /**
+     * @param redirection the redirection to record.
+     * @param fallback    {@code true} if the redirection is a fallback and not registered for the descriptor.
+     * @return a redirection recording every call to the given redirection.
+     */
+    public Redirection wrap(Redirection redirection, boolean fallback) {
+        return (obj, desc, type, args) -> invoke(redirection, fallback, obj, desc, type, args);
+    }
+
+    /**
+     * @param top the maximum number of descriptors to include.
+     * @return a table of the most called descriptors, with their calls, fallback calls,
+     * sampled average, median and 99th percentile latency in nanoseconds and average allocated bytes.
+     */
+    public String getReport(int top) {
+        // snapshot the calls, they might change while sorting
+        List<Row> rows = new ArrayList<>(stats.size());
+        stats.forEach((desc, s) -> rows.add(new Row(desc, s, s.calls.sum())));
+        rows.sort(Comparator.comparingLong((Row row) -> row.calls).reversed());
+
+        StringBuilder builder = new StringBuilder("HeadlessMc redirection calls (top ")
+            .append(Math.min(top, rows.size())).append(" of ").append(rows.size())
+            .append(" descriptors, measured 1 in ").append(sampleRate).append(" calls):\n");
+        builder.append(String.format("%12s %12s %10s %10s %10s %12s  %s%n",
+                                     "calls", "fallback", "avg ns", "p50 ns", "p99 ns", "bytes/call", "descriptor"));
+        for (Row row : rows.subList(0, Math.min(top, rows.size()))) {
+            long samples = row.stats.samples.sum();
+            builder.append(String.format("%12d %12d %10s %10s %10s %12s  %s%n",
+                                         row.calls,
+                                         row.stats.fallbacks.sum(),
+                                         samples == 0 ? "-" : String.valueOf(row.stats.nanos.sum() / samples),
+                                         samples == 0 ? "-" : String.valueOf(row.stats.percentile(samples, 0.5)),
+                                         samples == 0 ? "-" : String.valueOf(row.stats.percentile(samples, 0.99)),
+                                         samples == 0 || allocationCounter == null
+                                             ? "-"
+                                             : String.valueOf(row.stats.allocatedBytes.sum() / samples),
+                                         row.desc));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Forgets all recorded calls.
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    long getCalls(String desc) {
+        Stats stats = this.stats.get(desc);
+        return stats == null ? 0L : stats.calls.sum();
+    }
+
+    long getFallbacks(String desc) {
+        Stats stats = this.stats.get(desc);
+        return stats == null ? 0L : stats.fallbacks.sum();
+    }
+
+    private Stats getStats(String desc) {
+        Stats stats = this.stats.get(desc);
+        if (stats == null) {
+            stats = this.stats.computeIfAbsent(desc, d -> new Stats());
+        }
+
+        return stats;
+    }
+
+    private static RedirectionProfiler fromProperties() {
+        return new RedirectionProfiler(
+            Boolean.parseBoolean(System.getProperty(LwjglProperties.PROFILER, "false")),
+            getInt(LwjglProperties.PROFILER_SAMPLE, 64));
+    }
+
+    private static int getInt(String property, int defaultValue) {
+        try {
+            return Integer.parseInt(System.getProperty(property, String.valueOf(defaultValue)));
+        } catch (NumberFormatException nfe) {
+            return defaultValue;
+        }
+    }
+
+    private static final class Stats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        // bucket i counts the sampled latencies in [2^(i-1), 2^i) nanoseconds, bucket 0 those of 0 nanoseconds
+        private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+
+        public void sample(long time, long bytes) {
+            samples.increment();
+            nanos.add(Math.max(0L, time));
+            allocatedBytes.add(Math.max(0L, bytes));
+            latencies.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(Math.max(0L, time)));
+        }
+
+        public long percentile(long samples, double percentile) {
+            long target = (long) Math.ceil(samples * percentile);
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += latencies.get(i);
+                if (count >= target) {
+                    return i == 0 ? 0L : 1L << Math.min(i, 62);
+                }
+            }
+
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static final class Row {
+        private final String desc;
+        private final Stats stats;
+        private final long calls;
+
+        private Row(String desc, Stats stats, long calls) {
+            this.desc = desc;
+            this.stats = stats;
+            this.calls = calls;
+        }
+    }
+
+    private static final class AllocationCounter {
+        private final com.sun.management.ThreadMXBean bean;
+
+        private AllocationCounter(com.sun.management.ThreadMXBean bean) {
+            this.bean = bean;
+        }
+
+        public long getAllocatedBytes() {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        public static @Nullable AllocationCounter create() {
+            try {
+                java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                if (bean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+                    ((com.sun.management.ThreadMXBean) bean).setThreadAllocatedMemoryEnabled(true);
+                    return new AllocationCounter((com.sun.management.ThreadMXBean) bean);
+                }
+            } catch (Throwable t) { // e.g. on Android, where java.lang.management does not exist
+                System.err.println("Failed to measure allocations of redirections: " + t);
+            }
+
+            return null;
+        }
+    }
+
+}
@@ -3,9 +3,19 @@ package io.github.headlesshq.headlessmc.lwjgl.api;
 import io.github.headlesshq.headlessmc.lwjgl.transformer.LwjglTransformer;
 import lombok.experimental.UtilityClass;
 import io.github.headlesshq.headlessmc.lwjgl.RedirectionManagerImpl;
+import io.github.headlesshq.headlessmc.lwjgl.redirections.LwjglRedirections;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 
 @UtilityClass
 public class RedirectionApi {
+    public static final String BOOTSTRAP_NAME = "bootstrap";
+    public static final String BOOTSTRAP_DESC = "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;" +
+        "Ljava/lang/invoke/MethodType;Ljava/lang/String;I)Ljava/lang/invoke/CallSite;";
+
     /*
         Not using a ServiceLoader for now, modularized environments with
         multiple ClassLoaders cause some issues.
@@ -13,6 +23,10 @@ public class RedirectionApi {
     private static final RedirectionManager REDIRECTION_MANAGER =
         new RedirectionManagerImpl();
 
+    static {
+        LwjglRedirections.addShutdownHooks();
+    }
+
     /**
      * @return an implementation of the {@link RedirectionManager}.
      */
@@ -31,4 +45,19 @@ public class RedirectionApi {
         return REDIRECTION_MANAGER.invoke(obj, desc, type, args);
     }
 
+    /**
+     * Bootstrap method for the invokedynamic instructions emitted by the
+     * {@link LwjglTransformer}. Every call site gets linked once, to the
+     * {@link Redirection} registered for it or to a constant default value.
+     *
+     * @see RedirectionManager#link
+     */
+    @SuppressWarnings("unused") // used by the transformer
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String name,
+                                     MethodType type, String desc,
+                                     int isStatic) throws Throwable {
+        return new ConstantCallSite(REDIRECTION_MANAGER.link(
+            lookup.lookupClass(), desc, type, isStatic != 0));
+    }
+
 }
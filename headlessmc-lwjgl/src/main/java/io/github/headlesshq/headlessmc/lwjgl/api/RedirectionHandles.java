@@ -0,0 +1,75 @@
+package io.github.headlesshq.headlessmc.lwjgl.api;
+
+import lombok.experimental.UtilityClass;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Builds the {@link MethodHandle}s that invokedynamic call sites
+ * emitted by the LwjglTransformer get bound to.
+ */
+@UtilityClass
+public class RedirectionHandles {
+    private static final MethodHandle INVOKE;
+
+    static {
+        try {
+            INVOKE = MethodHandles.publicLookup().findVirtual(
+                Redirection.class, Redirection.METHOD_NAME,
+                MethodType.methodType(Object.class, Object.class, String.class,
+                                      Class.class, Object[].class))
+                                  .asFixedArity();
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Creates a handle of the given type, which boxes its arguments and calls
+     * {@link Redirection#invoke(Object, String, Class, Object...)}.
+     *
+     * @param redirection the redirection to call.
+     * @param caller the class containing the call site, passed as the object for static methods.
+     * @param desc the descriptor of the redirected method.
+     * @param type the type of the call site, for non-static methods the first parameter is the receiver.
+     * @param isStatic whether the redirected method is static.
+     * @return a handle calling the redirection.
+     */
+    public static MethodHandle invoker(Redirection redirection, Class<?> caller,
+                                       String desc, MethodType type,
+                                       boolean isStatic) {
+        MethodHandle handle = MethodHandles.insertArguments(
+            INVOKE.bindTo(redirection), 1, desc, type.returnType());
+        if (isStatic) {
+            handle = MethodHandles.insertArguments(handle, 0, caller);
+            handle = handle.asCollector(Object[].class, type.parameterCount());
+        } else {
+            handle = handle.asCollector(Object[].class, type.parameterCount() - 1);
+        }
+
+        return handle.asType(type);
+    }
+
+    /**
+     * Creates a handle of the given type, which ignores its arguments and
+     * always returns the given value, without boxing or allocating anything.
+     *
+     * @param value the value to return, ignored if the type returns void.
+     * @param type the type of the call site.
+     * @return a handle returning the value.
+     */
+    public static MethodHandle constant(Object value, MethodType type) {
+        MethodHandle handle;
+        if (type.returnType() == void.class) {
+            handle = MethodHandles.constant(Object.class, null)
+                                  .asType(MethodType.methodType(void.class));
+        } else {
+            handle = MethodHandles.constant(type.returnType(), value);
+        }
+
+        return MethodHandles.dropArguments(handle, 0, type.parameterList());
+    }
+
+}
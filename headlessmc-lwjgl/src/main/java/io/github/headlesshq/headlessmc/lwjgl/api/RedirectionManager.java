@@ -1,5 +1,7 @@
 package io.github.headlesshq.headlessmc.lwjgl.api;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.util.function.Supplier;
 
 public interface RedirectionManager extends Redirection {
@@ -9,4 +11,32 @@ public interface RedirectionManager extends Redirection {
 
     void redirect(String desc, Redirection redirection);
 
+    /**
+     * The default implementation returns {@code true}, so that methods are never
+     * replaced with constant stubs for managers which do not know their redirections.
+     *
+     * @param desc the descriptor of a method.
+     * @return {@code true} if a redirection has been registered for the method.
+     */
+    default boolean isRedirected(String desc) {
+        return true;
+    }
+
+    /**
+     * Links an invokedynamic call site emitted by the LwjglTransformer.
+     * The default implementation calls this manager on every invocation.
+     *
+     * @param caller the class containing the call site.
+     * @param desc the descriptor of the redirected method.
+     * @param type the type of the call site, for non-static methods the first parameter is the receiver.
+     * @param isStatic whether the redirected method is static.
+     * @return the target for the call site.
+     * @throws Throwable if the call site could not be linked.
+     * @see RedirectionApi#bootstrap
+     */
+    default MethodHandle link(Class<?> caller, String desc, MethodType type,
+                              boolean isStatic) throws Throwable {
+        return RedirectionHandles.invoker(this, caller, desc, type, isStatic);
+    }
+
 }
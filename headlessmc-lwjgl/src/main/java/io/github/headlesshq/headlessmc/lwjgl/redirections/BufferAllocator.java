@@ -0,0 +1,310 @@
+package io.github.headlesshq.headlessmc.lwjgl.redirections;
+
+import io.github.headlesshq.headlessmc.lwjgl.LwjglProperties;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.*;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Allocates the heap buffers returned by the redirected {@code MemoryUtil}, {@code MemoryStack} and {@code BufferUtils} methods.
+ * <p>Arrays are rounded up to power of two size classes. Buffers passed to {@code MemoryUtil.memFree}
+ * are kept in free lists and reused, so that a game which allocates and frees buffers every frame
+ * does not create new garbage every frame. Like the arrays created before, the returned buffers are always zeroed.
+ * <p>The free lists are shared by all threads, so a buffer may be freed by another thread than the one that allocated it,
+ * and an array freed twice is only pooled once. All free lists together retain at most
+ * {@link LwjglProperties#BUFFER_POOL_MAX_BYTES} bytes, arrays freed beyond that are left to the garbage collector.
+ * <p>Every allocation is counted, see {@link #getStatistics()}.
+ */
+public final class BufferAllocator {
+    public static final BufferAllocator INSTANCE = new BufferAllocator(
+        Boolean.parseBoolean(System.getProperty(LwjglProperties.BUFFER_POOL, "true")),
+        getMaxRetainedBytes());
+
+    static final int MIN_SHIFT = 4;
+    static final int MAX_SHIFT = 20;
+    private static final int MAX_FREE_ARRAYS = 16;
+    private static final int MAX_FREE_ELEMENTS = 1 << MAX_SHIFT;
+    private static final long DEFAULT_MAX_RETAINED_BYTES = 32L << 20;
+
+    private final Pool<byte[]> bytes;
+    private final Pool<short[]> shorts;
+    private final Pool<int[]> ints;
+    private final Pool<long[]> longs;
+    private final Pool<float[]> floats;
+    private final Pool<double[]> doubles;
+    private final LongAdder reallocations = new LongAdder();
+    private final LongAdder inPlaceReallocations = new LongAdder();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final long maxRetainedBytes;
+
+    public BufferAllocator(boolean pooling) {
+        this(pooling, DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    /**
+     * @param pooling          {@code true} to reuse freed arrays.
+     * @param maxRetainedBytes the maximum number of bytes all free lists together may retain.
+     */
+    public BufferAllocator(boolean pooling, long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.bytes = new Pool<>("byte", 0, pooling, byte[]::new, a -> a.length, (a, n) -> Arrays.fill(a, 0, n, (byte) 0));
+        this.shorts = new Pool<>("short", 1, pooling, short[]::new, a -> a.length, (a, n) -> Arrays.fill(a, 0, n, (short) 0));
+        this.ints = new Pool<>("int", 2, pooling, int[]::new, a -> a.length, (a, n) -> Arrays.fill(a, 0, n, 0));
+        this.longs = new Pool<>("long", 3, pooling, long[]::new, a -> a.length, (a, n) -> Arrays.fill(a, 0, n, 0L));
+        this.floats = new Pool<>("float", 2, pooling, float[]::new, a -> a.length, (a, n) -> Arrays.fill(a, 0, n, 0.0f));
+        this.doubles = new Pool<>("double", 3, pooling, double[]::new, a -> a.length, (a, n) -> Arrays.fill(a, 0, n, 0.0));
+    }
+
+    public ByteBuffer allocate(int size) {
+        return ByteBuffer.wrap(bytes.allocate(size), 0, size).slice();
+    }
+
+    public ShortBuffer allocateShort(int size) {
+        return ShortBuffer.wrap(shorts.allocate(size), 0, size).slice();
+    }
+
+    public IntBuffer allocateInt(int size) {
+        return IntBuffer.wrap(ints.allocate(size), 0, size).slice();
+    }
+
+    public LongBuffer allocateLong(int size) {
+        return LongBuffer.wrap(longs.allocate(size), 0, size).slice();
+    }
+
+    public FloatBuffer allocateFloat(int size) {
+        return FloatBuffer.wrap(floats.allocate(size), 0, size).slice();
+    }
+
+    public DoubleBuffer allocateDouble(int size) {
+        return DoubleBuffer.wrap(doubles.allocate(size), 0, size).slice();
+    }
+
+    /**
+     * Returns the array backing the given buffer to the pool. The buffer must not be used anymore afterwards.
+     * Buffers that are not backed by an array starting at index 0, e.g. direct buffers or slices, are ignored.
+     *
+     * @param buffer the buffer to free.
+     */
+    public void free(@Nullable Buffer buffer) {
+        if (buffer == null || !buffer.hasArray() || buffer.arrayOffset() != 0) {
+            return;
+        }
+
+        Object array = buffer.array();
+        if (array instanceof byte[]) {
+            bytes.release((byte[]) array);
+        } else if (array instanceof int[]) {
+            ints.release((int[]) array);
+        } else if (array instanceof float[]) {
+            floats.release((float[]) array);
+        } else if (array instanceof long[]) {
+            longs.release((long[]) array);
+        } else if (array instanceof short[]) {
+            shorts.release((short[]) array);
+        } else if (array instanceof double[]) {
+            doubles.release((double[]) array);
+        }
+    }
+
+    /**
+     * Resizes the given buffer like {@code MemoryUtil.memRealloc}.
+     * The contents up to the limit of the old buffer are kept and its position is carried over.
+     * If the array backing the old buffer is large enough it is reused, otherwise the old buffer is freed.
+     *
+     * @param buffer the buffer to resize, {@code null} to allocate a new buffer.
+     * @param size   the new size of the buffer.
+     * @return the resized buffer.
+     */
+    public ByteBuffer realloc(@Nullable ByteBuffer buffer, int size) {
+        if (buffer == null) {
+            return allocate(size);
+        }
+
+        reallocations.increment();
+        int position = buffer.position();
+        ByteBuffer result;
+        if (bytes.isPooling() && buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.array().length >= size) {
+            inPlaceReallocations.increment();
+            byte[] array = buffer.array();
+            if (size > buffer.capacity()) {
+                Arrays.fill(array, buffer.capacity(), size, (byte) 0);
+            }
+
+            result = ByteBuffer.wrap(array, 0, size).slice();
+        } else {
+            result = allocate(size);
+            int limit = Math.min(buffer.limit(), size);
+            // get with an index is Java 13+, so we have to rewind to copy from index 0
+            buffer.rewind();
+            buffer.get(result.array(), result.arrayOffset(), limit);
+            buffer.position(position);
+            free(buffer);
+        }
+
+        result.position(Math.min(position, size));
+        return result;
+    }
+
+    /**
+     * @return the number of allocations, reused arrays, freed arrays and allocated elements for every buffer type.
+     */
+    public String getStatistics() {
+        StringBuilder builder = new StringBuilder("HeadlessMc buffer allocations:");
+        for (Pool<?> pool : new Pool<?>[]{bytes, shorts, ints, longs, floats, doubles}) {
+            builder.append("\n  ").append(pool.name)
+                   .append(": allocations=").append(pool.allocations.sum())
+                   .append(", reused=").append(pool.reused.sum())
+                   .append(", freed=").append(pool.freed.sum())
+                   .append(", elements=").append(pool.elements.sum());
+        }
+
+        builder.append("\n  realloc: calls=").append(reallocations.sum())
+               .append(", in place=").append(inPlaceReallocations.sum());
+        builder.append("\n  retained bytes=").append(retainedBytes.get());
+        return builder.toString();
+    }
+
+    long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    static int sizeClass(int size) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(size, 1) - 1);
+        return Math.max(shift, MIN_SHIFT);
+    }
+
+    private static long getMaxRetainedBytes() {
+        try {
+            return Long.parseLong(System.getProperty(LwjglProperties.BUFFER_POOL_MAX_BYTES,
+                                                     String.valueOf(DEFAULT_MAX_RETAINED_BYTES)));
+        } catch (NumberFormatException nfe) {
+            return DEFAULT_MAX_RETAINED_BYTES;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Clearer<A> {
+        void clear(A array, int length);
+    }
+
+    private final class Pool<A> {
+        private final String name;
+        private final int elementShift;
+        private final boolean pooling;
+        private final IntFunction<A> factory;
+        private final ToIntFunction<A> length;
+        private final Clearer<A> clearer;
+        private final FreeLists freeLists = new FreeLists();
+        private final LongAdder allocations = new LongAdder();
+        private final LongAdder reused = new LongAdder();
+        private final LongAdder freed = new LongAdder();
+        private final LongAdder elements = new LongAdder();
+
+        private Pool(String name, int elementShift, boolean pooling, IntFunction<A> factory, ToIntFunction<A> length,
+                     Clearer<A> clearer) {
+            this.name = name;
+            this.elementShift = elementShift;
+            this.pooling = pooling;
+            this.factory = factory;
+            this.length = length;
+            this.clearer = clearer;
+        }
+
+        public boolean isPooling() {
+            return pooling;
+        }
+
+        @SuppressWarnings("unchecked")
+        public A allocate(int size) {
+            allocations.increment();
+            elements.add(size);
+            if (!pooling || size > 1 << MAX_SHIFT) {
+                return factory.apply(size);
+            }
+
+            int sizeClass = sizeClass(size);
+            A array;
+            synchronized (freeLists) {
+                array = (A) freeLists.pop(sizeClass);
+            }
+
+            if (array == null) {
+                return factory.apply(1 << sizeClass);
+            }
+
+            retainedBytes.addAndGet(-((long) length.applyAsInt(array) << elementShift));
+            reused.increment();
+            clearer.clear(array, size);
+            return array;
+        }
+
+        public void release(A array) {
+            int size = length.applyAsInt(array);
+            if (!pooling || Integer.bitCount(size) != 1 || size < 1 << MIN_SHIFT || size > 1 << MAX_SHIFT) {
+                return;
+            }
+
+            long arrayBytes = (long) size << elementShift;
+            if (retainedBytes.addAndGet(arrayBytes) > maxRetainedBytes) {
+                retainedBytes.addAndGet(-arrayBytes);
+                return;
+            }
+
+            boolean pushed;
+            synchronized (freeLists) {
+                pushed = freeLists.push(Integer.numberOfTrailingZeros(size), array);
+            }
+
+            if (pushed) {
+                freed.increment();
+            } else {
+                retainedBytes.addAndGet(-arrayBytes);
+            }
+        }
+    }
+
+    private static final class FreeLists {
+        private final Object[][] arrays = new Object[MAX_SHIFT + 1][];
+        private final int[] sizes = new int[MAX_SHIFT + 1];
+
+        public @Nullable Object pop(int sizeClass) {
+            if (sizes[sizeClass] == 0) {
+                return null;
+            }
+
+            Object[] list = arrays[sizeClass];
+            Object result = list[--sizes[sizeClass]];
+            list[sizes[sizeClass]] = null;
+            return result;
+        }
+
+        public boolean push(int sizeClass, Object array) {
+            Object[] list = arrays[sizeClass];
+            if (list == null) {
+                list = new Object[Math.max(1, Math.min(MAX_FREE_ARRAYS, MAX_FREE_ELEMENTS >> sizeClass))];
+                arrays[sizeClass] = list;
+            }
+
+            int size = sizes[sizeClass];
+            if (size == list.length) {
+                return false;
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (list[i] == array) {
+                    return false; // freed twice, the free list for a size class holds every pooled array of that size
+                }
+            }
+
+            list[size] = array;
+            sizes[sizeClass] = size + 1;
+            return true;
+        }
+    }
+
+}
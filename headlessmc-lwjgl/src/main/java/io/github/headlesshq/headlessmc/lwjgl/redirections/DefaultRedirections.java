@@ -52,4 +52,12 @@ public class DefaultRedirections {
         return DEFAULTS.getOrDefault(type, object);
     }
 
+    /**
+     * @param redirection the redirection to check.
+     * @return {@code true} if the redirection is one of the fallbacks, which always return the same value.
+     */
+    public static boolean isConstant(Redirection redirection) {
+        return DEFAULTS.containsValue(redirection);
+    }
+
 }
@@ -0,0 +1,228 @@
+package io.github.headlesshq.headlessmc.lwjgl.redirections;
+
+import io.github.headlesshq.headlessmc.lwjgl.LwjglProperties;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the frame rate of the game loop, called on {@code Display.update()},
+ * and on {@code glfwSwapBuffers} if {@link LwjglProperties#GLFW_PACING} is enabled.
+ * <p>Instead of sleeping a fixed amount of time every frame, the pacer parks until one frame period has passed
+ * since the last frame, so the time the game spent on the frame itself is not slept again.
+ * <p>When nothing needs rendering the pacer drops to the idle period, configured by {@link LwjglProperties#IDLE_FPS}:
+ * while the window is {@link #setIconified(boolean) iconified}, while idle is {@link #setForcedIdle(boolean) forced},
+ * e.g. by {@link LwjglProperties#IDLE}, and for loops that only call {@code glfwPollEvents} without swapping buffers,
+ * once no frame has been swapped for two periods.
+ * <p>Every second the achieved frames per second and the CPU time the game thread spent per frame are updated.
+ * <p>The pacer is meant to be called by the thread running the game loop only.
+ */
+public final class FramePacer {
+    public static final FramePacer INSTANCE = fromProperties();
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long periodNanos;
+    private final long idlePeriodNanos;
+    private final @Nullable ThreadMXBean threadBean;
+    private volatile boolean forcedIdle;
+    private volatile boolean iconified;
+
+    private long lastFrame = System.nanoTime();
+    private long lastSwap = lastFrame;
+    private long windowStart = lastFrame;
+    private long windowCpuTime = -1L;
+    private long windowSleep;
+    private int windowFrames;
+
+    private volatile long frames;
+    private volatile double fps;
+    private volatile long cpuNanosPerFrame = -1L;
+    private volatile long workNanosPerFrame;
+
+    /**
+     * @param periodNanos     the minimum time between two frames, {@code 0} for no limit.
+     * @param idlePeriodNanos the minimum time between two frames while nothing needs rendering.
+     */
+    public FramePacer(long periodNanos, long idlePeriodNanos) {
+        this.periodNanos = Math.max(0L, periodNanos);
+        this.idlePeriodNanos = Math.max(this.periodNanos, idlePeriodNanos);
+        this.threadBean = getThreadBean();
+    }
+
+    /**
+     * Called when the game finished a frame. Parks until the current frame period is over.
+     *
+     * @throws InterruptedException if the thread has been interrupted, like {@link Thread#sleep(long)}.
+     */
+    public void frame() throws InterruptedException {
+        pace(getPeriodNanos());
+        lastSwap = lastFrame;
+    }
+
+    /**
+     * Called when the game polls for events.
+     * Only parks, for the idle period, if the game has not finished a frame for two frame periods.
+     *
+     * @throws InterruptedException if the thread has been interrupted, like {@link Thread#sleep(long)}.
+     */
+    public void poll() throws InterruptedException {
+        if (periodNanos > 0 && System.nanoTime() - lastSwap > 2 * periodNanos) {
+            pace(idlePeriodNanos);
+        }
+    }
+
+    /**
+     * @param forcedIdle {@code true} to limit every frame to the idle period.
+     */
+    public void setForcedIdle(boolean forcedIdle) {
+        this.forcedIdle = forcedIdle;
+    }
+
+    /**
+     * @param iconified {@code true} if the game iconified its window, nothing needs rendering until it is restored.
+     */
+    public void setIconified(boolean iconified) {
+        this.iconified = iconified;
+    }
+
+    public boolean isIconified() {
+        return iconified;
+    }
+
+    /**
+     * @return {@code true} if frames are currently limited to the idle period.
+     */
+    public boolean isIdle() {
+        return forcedIdle || iconified;
+    }
+
+    /**
+     * @return the minimum time between two frames, the idle period if {@link #isIdle()}.
+     */
+    public long getPeriodNanos() {
+        return isIdle() ? idlePeriodNanos : periodNanos;
+    }
+
+    /**
+     * @return the number of frames paced so far.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return the frames per second achieved during the last second.
+     */
+    public double getFps() {
+        return fps;
+    }
+
+    /**
+     * @return the CPU time the game thread used per frame during the last second,
+     * or {@code -1} if the JVM cannot measure the CPU time of threads.
+     */
+    public long getCpuNanosPerFrame() {
+        return cpuNanosPerFrame;
+    }
+
+    /**
+     * @return the wall clock time per frame during the last second in which the game was not parked by this pacer.
+     */
+    public long getWorkNanosPerFrame() {
+        return workNanosPerFrame;
+    }
+
+    public String getStatistics() {
+        return String.format("HeadlessMc frames: frames=%d, fps=%.1f, work/frame=%.3fms, cpu/frame=%s",
+                             frames, fps, workNanosPerFrame / 1_000_000.0,
+                             cpuNanosPerFrame < 0 ? "-" : String.format("%.3fms", cpuNanosPerFrame / 1_000_000.0));
+    }
+
+    private void pace(long period) throws InterruptedException {
+        long deadline = lastFrame + period;
+        long start = System.nanoTime();
+        long now = start;
+        while (now < deadline) {
+            LockSupport.parkNanos(deadline - now);
+            // clear the flag, otherwise every following park would return immediately
+            if (Thread.interrupted()) {
+                lastFrame = System.nanoTime();
+                throw new InterruptedException();
+            }
+
+            now = System.nanoTime();
+        }
+
+        // keep the cadence if we woke up a bit late, but do not try to catch up if a frame took too long
+        lastFrame = now - deadline > period ? now : deadline;
+        updateStatistics(now, now - start);
+    }
+
+    private void updateStatistics(long now, long slept) {
+        frames++;
+        windowFrames++;
+        windowSleep += slept;
+        long elapsed = now - windowStart;
+        if (elapsed < NANOS_PER_SECOND) {
+            return;
+        }
+
+        fps = windowFrames * (double) NANOS_PER_SECOND / elapsed;
+        workNanosPerFrame = (elapsed - windowSleep) / windowFrames;
+        long cpuTime = getCpuTime();
+        cpuNanosPerFrame = cpuTime < 0 || windowCpuTime < 0 ? -1L : (cpuTime - windowCpuTime) / windowFrames;
+        windowCpuTime = cpuTime;
+        windowStart = now;
+        windowSleep = 0L;
+        windowFrames = 0;
+    }
+
+    private long getCpuTime() {
+        return threadBean == null ? -1L : threadBean.getCurrentThreadCpuTime();
+    }
+
+    private static @Nullable ThreadMXBean getThreadBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean.isCurrentThreadCpuTimeSupported()) {
+                if (!bean.isThreadCpuTimeEnabled()) {
+                    bean.setThreadCpuTimeEnabled(true);
+                }
+
+                return bean;
+            }
+        } catch (Throwable ignored) {
+            // e.g. on Android, where java.lang.management does not exist
+        }
+
+        return null;
+    }
+
+    private static FramePacer fromProperties() {
+        long period;
+        int fps = getInt(LwjglProperties.FPS, 0);
+        if (fps > 0) {
+            period = NANOS_PER_SECOND / fps;
+        } else {
+            period = TimeUnit.MILLISECONDS.toNanos(getInt(LwjglProperties.DISPLAY_UPDATE, 10));
+        }
+
+        int idleFps = getInt(LwjglProperties.IDLE_FPS, 1);
+        FramePacer pacer = new FramePacer(period, idleFps > 0 ? NANOS_PER_SECOND / idleFps : period);
+        pacer.setForcedIdle(Boolean.parseBoolean(System.getProperty(LwjglProperties.IDLE, "false")));
+        return pacer;
+    }
+
+    private static int getInt(String property, int defaultValue) {
+        try {
+            return Integer.parseInt(System.getProperty(property, String.valueOf(defaultValue)));
+        } catch (NumberFormatException nfe) {
+            return defaultValue;
+        }
+    }
+
+}
@@ -2,13 +2,19 @@ package io.github.headlesshq.headlessmc.lwjgl.redirections;
 
 import lombok.experimental.UtilityClass;
 import io.github.headlesshq.headlessmc.lwjgl.LwjglProperties;
+import io.github.headlesshq.headlessmc.lwjgl.RedirectionProfiler;
+import io.github.headlesshq.headlessmc.lwjgl.api.Redirection;
 import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionManager;
 import io.github.headlesshq.headlessmc.lwjgl.redirections.stb.STBImage;
 import io.github.headlesshq.headlessmc.lwjgl.redirections.stb.STBImageRedirection;
 import io.github.headlesshq.headlessmc.lwjgl.redirections.stb.STBImageRedirectionNoAWT;
 
 import java.lang.reflect.Field;
-import java.nio.*;
+import java.nio.Buffer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 import static io.github.headlesshq.headlessmc.lwjgl.api.Redirection.of;
 
@@ -18,6 +24,7 @@ public class LwjglRedirections {
     public static final int GL_TEXTURE_WIDTH = 4096;
     public static final int GL_TEXTURE_INTERNAL_FORMAT_CONST = 4099;
     public static final int GL_UNIFORM_BUFFER_OFFSET_ALIGNMENT = 0x8A34;
+    public static final int GLFW_ICONIFIED = 0x20002;
 
     public static final int GL_TEXTURE_INTERNAL_FORMAT = Integer.parseInt(
         System.getProperty(LwjglProperties.GL_TEXTURE_INTERNAL_FORMAT, "32856")); //RGBA8
@@ -41,8 +48,82 @@ public class LwjglRedirections {
         ThreadLocal.withInitial(() -> 0L);
     private static final long START = System.nanoTime();
 
+    /**
+     * @return the descriptors of all methods redirected by {@link #register(RedirectionManager)}.
+     */
+    public static Set<String> getRedirectedDescriptors() {
+        return RedirectedDescriptors.DESCRIPTORS;
+    }
+
+    /**
+     * Adds the shutdown hooks which print the statistics enabled by {@link LwjglProperties#BUFFER_STATISTICS},
+     * {@link LwjglProperties#PROFILER} and {@link LwjglProperties#FRAME_STATISTICS}.
+     * Only called when the game itself uses the redirection api, not when just transforming classes.
+     */
+    public static void addShutdownHooks() {
+        if (Boolean.parseBoolean(System.getProperty(LwjglProperties.BUFFER_STATISTICS, "false"))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> System.out.println(BufferAllocator.INSTANCE.getStatistics()),
+                "HeadlessMc-BufferStatistics"));
+        }
+
+        if (RedirectionProfiler.INSTANCE.isEnabled()) {
+            int top = getProfilerTop();
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> System.out.println(RedirectionProfiler.INSTANCE.getReport(top)),
+                "HeadlessMc-RedirectionProfiler"));
+        }
+
+        if (Boolean.parseBoolean(System.getProperty(LwjglProperties.FRAME_STATISTICS, "false"))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> System.out.println(FramePacer.INSTANCE.getStatistics()),
+                "HeadlessMc-FrameStatistics"));
+        }
+    }
+
+    private static int getProfilerTop() {
+        try {
+            return Integer.parseInt(System.getProperty(LwjglProperties.PROFILER_TOP, "50"));
+        } catch (NumberFormatException nfe) {
+            return 50;
+        }
+    }
+
     public static void register(RedirectionManager manager) {
         manager.redirect(DisplayUpdater.DESC, new DisplayUpdater());
+        // registered even if pacing is disabled, so that the launcher does not stub them when it cannot see the property
+        boolean glfwPacing = Boolean.parseBoolean(System.getProperty(LwjglProperties.GLFW_PACING, "false"));
+        manager.redirect("Lorg/lwjgl/glfw/GLFW;glfwSwapBuffers(J)V",
+                         (obj, desc, type, args) -> {
+                             // an idle game is always paced, nothing needs rendering anyway
+                             if (glfwPacing || FramePacer.INSTANCE.isIdle()) {
+                                 FramePacer.INSTANCE.frame();
+                             }
+
+                             return null;
+                         });
+        manager.redirect("Lorg/lwjgl/glfw/GLFW;glfwPollEvents()V",
+                         (obj, desc, type, args) -> {
+                             if (glfwPacing) {
+                                 FramePacer.INSTANCE.poll();
+                             }
+
+                             return null;
+                         });
+        // there is no window to show, an iconified game only needs to run at the idle frame rate
+        manager.redirect("Lorg/lwjgl/glfw/GLFW;glfwIconifyWindow(J)V",
+                         (obj, desc, type, args) -> {
+                             FramePacer.INSTANCE.setIconified(true);
+                             return null;
+                         });
+        manager.redirect("Lorg/lwjgl/glfw/GLFW;glfwRestoreWindow(J)V",
+                         (obj, desc, type, args) -> {
+                             FramePacer.INSTANCE.setIconified(false);
+                             return null;
+                         });
+        manager.redirect("Lorg/lwjgl/glfw/GLFW;glfwGetWindowAttrib(JI)I",
+                         (obj, desc, type, args) -> (int) args[1] == GLFW_ICONIFIED
+                             && FramePacer.INSTANCE.isIconified() ? 1 : 0);
         manager.redirect("Lorg/lwjgl/glfw/GLFW;glfwWaitEventsTimeout(D)V",
                          (obj, desc, type, args) -> {
                              Thread.sleep((long) ((double) args[0] * 1000L));
@@ -166,55 +247,61 @@ public class LwjglRedirections {
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;memByteBuffer(JI)" +
                              "Ljava/nio/ByteBuffer;",
                          (obj, desc, type, args) ->
-                             ByteBuffer.wrap(new byte[(int) args[1]]));
+                             BufferAllocator.INSTANCE.allocate((int) args[1]));
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;" +
                              "memAlloc(I)Ljava/nio/ByteBuffer;",
-                         (obj, desc, type, args) -> ByteBuffer.wrap(
-                             new byte[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocate(
+                             (int) args[0]));
+        manager.redirect("Lorg/lwjgl/system/MemoryUtil;" +
+                             "memFree(Ljava/nio/Buffer;)V",
+                         (obj, desc, type, args) -> {
+                             BufferAllocator.INSTANCE.free((Buffer) args[0]);
+                             return null;
+                         });
         manager.redirect("Lorg/lwjgl/system/MemoryStack;" +
                              "mallocInt(I)Ljava/nio/IntBuffer;",
-                         (obj, desc, type, args) -> IntBuffer.wrap(
-                             new int[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateInt(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/BufferUtils;createIntBuffer(I)" +
                              "Ljava/nio/IntBuffer;",
-                         (obj, desc, type, args) -> IntBuffer.wrap(
-                             new int[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateInt(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/BufferUtils;createFloatBuffer(I)" +
                              "Ljava/nio/FloatBuffer;",
-                         (obj, desc, type, args) -> FloatBuffer.wrap(
-                             new float[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateFloat(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;createIntBuffer(I)" +
                              "Ljava/nio/IntBuffer;",
-                         (obj, desc, type, args) -> IntBuffer.wrap(
-                             new int[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateInt(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;" +
                              "memAllocFloat(I)Ljava/nio/FloatBuffer;",
-                         (obj, desc, type, args) -> FloatBuffer.wrap(
-                             new float[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateFloat(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/BufferUtils;createByteBuffer(I)" +
                              "Ljava/nio/ByteBuffer;",
-                         (obj, desc, type, args) -> ByteBuffer.wrap(
-                             new byte[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocate(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;memAllocInt(I)" +
                              "Ljava/nio/IntBuffer;",
-                         (obj, desc, type, args) -> IntBuffer.wrap(
-                             new int[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateInt(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;memAllocLong(I)" +
                              "Ljava/nio/LongBuffer;",
-                         (obj, desc, type, args) -> LongBuffer.wrap(
-                             new long[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateLong(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;memAllocDouble(I)" +
                              "Ljava/nio/DoubleBuffer;",
-                         (obj, desc, type, args) -> DoubleBuffer.wrap(
-                             new double[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateDouble(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;memAllocShort(I)" +
                              "Ljava/nio/ShortBuffer;",
-                         (obj, desc, type, args) -> ShortBuffer.wrap(
-                             new short[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocateShort(
+                             (int) args[0]));
         manager.redirect("Lorg/lwjgl/system/MemoryStack;malloc(I)" +
                              "Ljava/nio/ByteBuffer;",
-                         (obj, desc, type, args) -> ByteBuffer.wrap(
-                             new byte[(int) args[0]]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocate(
+                             (int) args[0]));
 
         // TODO: this is really bad...
         manager.redirect("Lorg/lwjgl/opengl/GL15;glBufferData(IJI)V",
@@ -224,8 +311,8 @@ public class LwjglRedirections {
                          });
         manager.redirect("Lorg/lwjgl/opengl/GL15;glMapBuffer(II)" +
                              "Ljava/nio/ByteBuffer;",
-                         (obj, desc, type, args) -> ByteBuffer.wrap(
-                             new byte[CURRENT_BUFFER_SIZE.get().intValue()]));
+                         (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocate(
+                             CURRENT_BUFFER_SIZE.get().intValue()));
 
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;" +
                              "memAddress(Ljava/nio/ByteBuffer;)J", of(1L));
@@ -286,7 +373,7 @@ public class LwjglRedirections {
         manager.redirect("Lorg/lwjgl/system/MemoryUtil;" +
                              "memIntBuffer(JI)Ljava/nio/IntBuffer;",
                          (obj, desc, type, args) ->
-                             IntBuffer.wrap(new int[(int) args[1]])
+                             BufferAllocator.INSTANCE.allocateInt((int) args[1])
         );
 
         CustomBufferRedirection.redirect(manager);
@@ -300,12 +387,12 @@ public class LwjglRedirections {
         // 1.21.5
         manager.redirect(
             "Lorg/lwjgl/opengl/GL30;glMapBufferRange(IJJI)Ljava/nio/ByteBuffer;",
-            (obj, desc, type, args) -> ByteBuffer.wrap(new byte[(int) ((long) args[2])])
+            (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocate((int) ((long) args[2]))
         );
 
         manager.redirect(
             "Lorg/lwjgl/system/MemoryUtil;memByteBufferSafe(JI)Ljava/nio/ByteBuffer;",
-            (obj, desc, type, args) -> ByteBuffer.wrap(new byte[(int) args[1]])
+            (obj, desc, type, args) -> BufferAllocator.INSTANCE.allocate((int) args[1])
         );
 
         // Embeddium
@@ -340,4 +427,30 @@ public class LwjglRedirections {
                 (obj, desc, type, args) -> 1);
     }
 
+    private static final class RedirectedDescriptors {
+        private static final Set<String> DESCRIPTORS = collect();
+
+        private static Set<String> collect() {
+            Set<String> descriptors = new TreeSet<>();
+            register(new RedirectionManager() {
+                @Override
+                public void redirect(String desc, Redirection redirection) {
+                    descriptors.add(desc);
+                }
+
+                @Override
+                public Object invoke(String desc, Class<?> type, Object obj, Supplier<Redirection> fallback, Object... args) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Object invoke(Object obj, String desc, Class<?> type, Object... args) {
+                    throw new UnsupportedOperationException();
+                }
+            });
+
+            return Collections.unmodifiableSet(descriptors);
+        }
+    }
+
 }
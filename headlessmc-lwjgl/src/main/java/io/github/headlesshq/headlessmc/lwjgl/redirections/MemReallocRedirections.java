@@ -15,16 +15,7 @@ public class MemReallocRedirections {
     }
 
     static ByteBuffer memRealloc(ByteBuffer byteBuffer, int size) {
-        int position = byteBuffer.position();
-        byte[] array = new byte[size];
-        ByteBuffer result = ByteBuffer.wrap(array);
-        // sadly get with index is java 13+ so we have to rewind to fill our array from index 0
-        // TODO: is there a better way? ByteBuffer should almost always be backed by array in this case?
-        byteBuffer.rewind();
-        byteBuffer.get(array, 0, Math.min(byteBuffer.remaining(), size));
-        byteBuffer.position(position);
-        result.position(position);
-        return result;
+        return BufferAllocator.INSTANCE.realloc(byteBuffer, size);
     }
 
 }
@@ -1,51 +1,111 @@
 package io.github.headlesshq.headlessmc.lwjgl.redirections;
 
-import lombok.RequiredArgsConstructor;
 import lombok.val;
+import io.github.headlesshq.headlessmc.lwjgl.LwjglProperties;
 import io.github.headlesshq.headlessmc.lwjgl.api.Redirection;
 import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionManager;
 import io.github.headlesshq.headlessmc.lwjgl.util.DescriptionUtil;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
-import java.util.Arrays;
 
-@RequiredArgsConstructor
+/**
+ * Fallback for methods returning objects. Returns a proxy for interfaces, an empty array for arrays
+ * and a new instance created with the no args constructor for other classes.
+ * <p>How to create an instance is looked up once per type and cached in a {@link ClassValue},
+ * so no reflection happens when a redirected method is called again.
+ * By default, the proxy of an interface is created only once and returned for every call,
+ * see {@link LwjglProperties#PROXY_SINGLETONS}.
+ */
 public class ObjectRedirection implements Redirection {
     private final RedirectionManager manager;
+    private final boolean proxySingletons;
+    private final ClassValue<Factory> factories = new ClassValue<Factory>() {
+        @Override
+        protected Factory computeValue(Class<?> type) {
+            return createFactory(type);
+        }
+    };
+
+    public ObjectRedirection(RedirectionManager manager) {
+        this(manager, Boolean.parseBoolean(System.getProperty(LwjglProperties.PROXY_SINGLETONS, "true")));
+    }
+
+    public ObjectRedirection(RedirectionManager manager, boolean proxySingletons) {
+        this.manager = manager;
+        this.proxySingletons = proxySingletons;
+    }
 
     @Override
-    public Object invoke(Object obj, String d, Class<?> type, Object... args) {
+    public Object invoke(Object obj, String d, Class<?> type, Object... args) throws Throwable {
+        return factories.get(type).create(d);
+    }
+
+    private Factory createFactory(Class<?> type) {
         if (type.isInterface()) {
-            return Proxy.newProxyInstance(
-                type.getClassLoader(), new Class<?>[]{type},
-                new ProxyRedirection(manager, DescriptionUtil.getDesc(type)));
+            return createProxyFactory(type);
         } else if (type.isArray()) {
             int dimension = 0;
-            while (type.isArray()) {
+            Class<?> componentType = type;
+            while (componentType.isArray()) {
                 dimension++;
-                type = type.getComponentType();
+                componentType = componentType.getComponentType();
             }
 
             val dimensions = new int[dimension];
-            Arrays.fill(dimensions, 0);
-            return Array.newInstance(type, dimensions);
+            val finalComponentType = componentType;
+            return d -> Array.newInstance(finalComponentType, dimensions);
         } else if (Modifier.isAbstract(type.getModifiers())) {
-            // TODO: logger for headlessmc-lwjgl?
-            System.err.println("Can't return abstract class: " + d);
-            return null;
+            return d -> {
+                // TODO: logger for headlessmc-lwjgl?
+                System.err.println("Can't return abstract class: " + d);
+                return null;
+            };
         }
 
         try {
             val constructor = type.getDeclaredConstructor();
             constructor.setAccessible(true);
-            return constructor.newInstance();
+            MethodHandle handle = MethodHandles.lookup()
+                                               .unreflectConstructor(constructor)
+                                               .asType(MethodType.methodType(Object.class));
+            return d -> handle.invokeExact();
         } catch (SecurityException | ReflectiveOperationException e) {
             //noinspection CallToPrintStackTrace
             e.printStackTrace();
-            return null;
+            return d -> null;
         }
     }
 
+    private Factory createProxyFactory(Class<?> type) {
+        // the handler only depends on the interface, so all proxies of a type can share it
+        InvocationHandler handler = new ProxyRedirection(manager, DescriptionUtil.getDesc(type));
+        if (proxySingletons) {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+            return d -> proxy;
+        }
+
+        try {
+            MethodHandle handle = MethodHandles.lookup()
+                                               .unreflectConstructor(Proxy.getProxyClass(type.getClassLoader(), type)
+                                                                          .getConstructor(InvocationHandler.class))
+                                               .bindTo(handler)
+                                               .asType(MethodType.methodType(Object.class));
+            return d -> handle.invokeExact();
+        } catch (IllegalArgumentException | ReflectiveOperationException e) {
+            // e.g. interfaces which are not public, fall back to creating the proxy via reflection
+            return d -> Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Factory {
+        Object create(String desc) throws Throwable;
+    }
+
 }
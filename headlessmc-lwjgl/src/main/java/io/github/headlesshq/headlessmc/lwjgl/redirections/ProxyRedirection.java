@@ -7,22 +7,23 @@ import io.github.headlesshq.headlessmc.lwjgl.util.DescriptionUtil;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 @RequiredArgsConstructor
 public class ProxyRedirection implements InvocationHandler {
+    // descriptors and fallbacks of the methods called on this proxy, the Method objects passed by the proxy are constants
+    private final Map<Method, Call> calls = new ConcurrentHashMap<>();
     private final RedirectionManager manager;
     private final String internalName;
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] argsIn)
         throws Throwable {
-        String desc = internalName + DescriptionUtil.getDesc(method);
-        Supplier<Redirection> fb = () -> manager;
-        if (desc.endsWith(";equals(Ljava/lang/Object;)Z")) {
-            fb = () -> DefaultRedirections.EQUALS;
-        } else if (desc.endsWith(";hashCode()I")) {
-            fb = () -> DefaultRedirections.HASHCODE;
+        Call call = calls.get(method);
+        if (call == null) {
+            call = calls.computeIfAbsent(method, this::createCall);
         }
 
         Object[] args = new Object[argsIn == null ? 1 : argsIn.length + 1];
@@ -31,7 +32,27 @@ public class ProxyRedirection implements InvocationHandler {
         if (argsIn != null) {
             System.arraycopy(argsIn, 0, args, 1, argsIn.length);
         }
-        return manager.invoke(desc, method.getReturnType(), proxy, fb, args);
+
+        return manager.invoke(call.desc, call.returnType, proxy, call.fallback, args);
+    }
+
+    private Call createCall(Method method) {
+        String desc = internalName + DescriptionUtil.getDesc(method);
+        Supplier<Redirection> fb = () -> manager;
+        if (desc.endsWith(";equals(Ljava/lang/Object;)Z")) {
+            fb = () -> DefaultRedirections.EQUALS;
+        } else if (desc.endsWith(";hashCode()I")) {
+            fb = () -> DefaultRedirections.HASHCODE;
+        }
+
+        return new Call(desc, method.getReturnType(), fb);
+    }
+
+    @RequiredArgsConstructor
+    private static final class Call {
+        private final String desc;
+        private final Class<?> returnType;
+        private final Supplier<Redirection> fallback;
     }
 
 }
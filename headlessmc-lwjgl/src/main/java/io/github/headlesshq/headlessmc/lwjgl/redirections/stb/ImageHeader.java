@@ -0,0 +1,127 @@
+package io.github.headlesshq.headlessmc.lwjgl.redirections.stb;
+
+import lombok.Data;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The dimensions of an image, read from the header of a PNG or JPEG file without decoding the image.
+ */
+@Data
+public final class ImageHeader {
+    private static final int PNG_SIGNATURE_START = 0x89504E47;
+    private static final int PNG_SIGNATURE_END = 0x0D0A1A0A;
+    private static final int IHDR = 0x49484452;
+
+    private final int width;
+    private final int height;
+    /**
+     * The number of channels stored in the file, like {@code channels_in_file} of stb_image.
+     */
+    private final int channels;
+
+    /**
+     * Reads the header of the image in the given buffer, starting at its position.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the buffer containing the image file.
+     * @return the header of the image or {@code null} if the image is neither a PNG nor a JPEG or is malformed.
+     */
+    public static @Nullable ImageHeader read(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        if (end - start >= 8 && getInt(buffer, start) == PNG_SIGNATURE_START && getInt(buffer, start + 4) == PNG_SIGNATURE_END) {
+            return readPng(buffer, start, end);
+        }
+
+        if (end - start >= 4 && (buffer.get(start) & 0xFF) == 0xFF && (buffer.get(start + 1) & 0xFF) == 0xD8) {
+            return readJpeg(buffer, start + 2, end);
+        }
+
+        return null;
+    }
+
+    private static @Nullable ImageHeader readPng(ByteBuffer buffer, int start, int end) {
+        // signature, chunk length, "IHDR", width, height, bit depth, color type
+        if (end - start < 26 || getInt(buffer, start + 12) != IHDR) {
+            return null;
+        }
+
+        int width = getInt(buffer, start + 16);
+        int height = getInt(buffer, start + 20);
+        int channels;
+        switch (buffer.get(start + 25)) {
+            case 0: // grayscale
+                channels = 1;
+                break;
+            case 4: // grayscale and alpha
+                channels = 2;
+                break;
+            case 2: // truecolor
+            case 3: // indexed, stb_image reports the channels of the palette
+                channels = 3;
+                break;
+            case 6: // truecolor and alpha
+                channels = 4;
+                break;
+            default:
+                return null;
+        }
+
+        return width > 0 && height > 0 ? new ImageHeader(width, height, channels) : null;
+    }
+
+    private static @Nullable ImageHeader readJpeg(ByteBuffer buffer, int offset, int end) {
+        while (offset + 4 <= end) {
+            if ((buffer.get(offset) & 0xFF) != 0xFF) {
+                return null;
+            }
+
+            int marker = buffer.get(offset + 1) & 0xFF;
+            if (marker == 0xFF) { // fill byte
+                offset++;
+                continue;
+            }
+
+            if (marker == 0x01 || marker >= 0xD0 && marker <= 0xD7) { // markers without a segment
+                offset += 2;
+                continue;
+            }
+
+            if (marker == 0xD9 || marker == 0xDA) { // end of image or start of scan before any frame
+                return null;
+            }
+
+            int length = getUnsignedShort(buffer, offset + 2);
+            // SOF0 - SOF15, except DHT (C4), JPG (C8) and DAC (CC)
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                if (offset + 10 > end) {
+                    return null;
+                }
+
+                int height = getUnsignedShort(buffer, offset + 5);
+                int width = getUnsignedShort(buffer, offset + 7);
+                int channels = buffer.get(offset + 9) & 0xFF;
+                return width > 0 && height > 0 && channels > 0 ? new ImageHeader(width, height, channels) : null;
+            }
+
+            offset += 2 + length;
+        }
+
+        return null;
+    }
+
+    // the buffers from lwjgl might be little endian, image headers are always big endian
+    private static int getInt(ByteBuffer buffer, int index) {
+        return (buffer.get(index) & 0xFF) << 24
+            | (buffer.get(index + 1) & 0xFF) << 16
+            | (buffer.get(index + 2) & 0xFF) << 8
+            | buffer.get(index + 3) & 0xFF;
+    }
+
+    private static int getUnsignedShort(ByteBuffer buffer, int index) {
+        return (buffer.get(index) & 0xFF) << 8 | buffer.get(index + 1) & 0xFF;
+    }
+
+}
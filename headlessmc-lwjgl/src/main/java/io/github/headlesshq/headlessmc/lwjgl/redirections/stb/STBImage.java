@@ -1,5 +1,9 @@
 package io.github.headlesshq.headlessmc.lwjgl.redirections.stb;
 
+import io.github.headlesshq.headlessmc.lwjgl.LwjglProperties;
+
+import java.nio.ByteBuffer;
+
 /**
  * TODO: is the STB library unsafe? couldn't we just load it?
  */
@@ -10,4 +14,34 @@ public class STBImage {
             "Ljava/nio/IntBuffer;Ljava/nio/IntBuffer;" +
             "I)Ljava/nio/ByteBuffer;";
 
+    /**
+     * If images should only be read up to their dimensions, instead of being decoded.
+     */
+    public static final boolean HEADER_ONLY = Boolean.parseBoolean(
+            System.getProperty(LwjglProperties.STB_HEADER_ONLY, "false"));
+
+    private static final int SHARED_PIXELS = 1 << 20;
+    private static final ByteBuffer PIXELS = ByteBuffer.allocate(SHARED_PIXELS);
+
+    /**
+     * The pixels returned for images that have only been read up to their dimensions.
+     * Nobody looks at them, so images of at most 1 MiB get a view of a shared buffer, larger images a new buffer.
+     * The buffer is writable, but its contents are unspecified, since other images might have written to it.
+     *
+     * @param header          the header of the image.
+     * @param desiredChannels the channels requested from stb_image, 0 for the channels in the file.
+     * @return the pixels for the image.
+     */
+    public static ByteBuffer pixels(ImageHeader header, int desiredChannels) {
+        long size = (long) header.getWidth() * header.getHeight()
+                * (desiredChannels != 0 ? desiredChannels : header.getChannels());
+        if (size > SHARED_PIXELS) {
+            return ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE - 8));
+        }
+
+        ByteBuffer result = PIXELS.duplicate();
+        result.limit((int) size);
+        return result;
+    }
+
 }
@@ -22,6 +22,15 @@ public enum STBImageRedirection implements Redirection {
         IntBuffer y = (IntBuffer) args[2];
         IntBuffer channels_in_file = (IntBuffer) args[3];
         int desired_channels = (int) args[4];
+        if (STBImage.HEADER_ONLY) {
+            ImageHeader header = ImageHeader.read(buffer);
+            if (header != null) {
+                x.put(0, header.getWidth());
+                y.put(0, header.getHeight());
+                channels_in_file.put(0, header.getChannels());
+                return STBImage.pixels(header, desired_channels);
+            }
+        }
 
         ByteBuffer result = ByteBuffer.wrap(
             new byte[x.get(x.position()) * y.get(y.position())
@@ -7,6 +7,7 @@ import java.nio.IntBuffer;
 
 /**
  * On some platforms (Android) java.awt might not be available.
+ * The dimensions of PNGs and JPEGs are read from their {@link ImageHeader}, other images are assumed to be 128x128.
  * TODO: use a library instead
  */
 public enum STBImageRedirectionNoAWT implements Redirection {
@@ -14,12 +15,19 @@ public enum STBImageRedirectionNoAWT implements Redirection {
 
     @Override
     public Object invoke(Object obj, String desc, Class<?> type, Object... args) throws Throwable {
-        // ByteBuffer buffer = (ByteBuffer) args[0];
-        // TODO: read this with something else than AWT?
+        ByteBuffer buffer = (ByteBuffer) args[0];
         IntBuffer x = (IntBuffer) args[1];
         IntBuffer y = (IntBuffer) args[2];
         IntBuffer channelsInFile = (IntBuffer) args[3];
         int desired_channels = (int) args[4];
+        // without AWT we can only read the dimensions of PNGs and JPEGs
+        ImageHeader header = buffer == null ? null : ImageHeader.read(buffer);
+        if (header != null && STBImage.HEADER_ONLY) {
+            x.put(0, header.getWidth());
+            y.put(0, header.getHeight());
+            channelsInFile.put(0, header.getChannels());
+            return STBImage.pixels(header, desired_channels);
+        }
 
         ByteBuffer result = ByteBuffer.wrap(
                 new byte[x.get(x.position()) * y.get(y.position())
@@ -27,8 +35,8 @@ public enum STBImageRedirectionNoAWT implements Redirection {
                         ? desired_channels
                         : channelsInFile.get(channelsInFile.position()))]);
 
-        x.put(0, 128);
-        y.put(0, 128);
+        x.put(0, header == null ? 128 : header.getWidth());
+        y.put(0, header == null ? 128 : header.getHeight());
         channelsInFile.put(0, desired_channels);
         return result;
     }
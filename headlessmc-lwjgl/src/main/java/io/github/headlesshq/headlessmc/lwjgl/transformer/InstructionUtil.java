@@ -123,6 +123,47 @@ public final class InstructionUtil {
         return il;
     }
 
+    /**
+     * Loads the value that the DefaultRedirections return for the given type.
+     *
+     * @param type the type to load the default value for.
+     * @return instructions loading the value, empty for void, or {@code null} if the type has no constant default.
+     */
+    public static InsnList loadDefault(Type type) {
+        InsnList il = new InsnList();
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+            case Type.BYTE:
+            case Type.SHORT:
+            case Type.INT:
+                il.add(new InsnNode(ICONST_0));
+                break;
+            case Type.CHAR:
+                il.add(new IntInsnNode(BIPUSH, 'a'));
+                break;
+            case Type.FLOAT:
+                il.add(new InsnNode(FCONST_0));
+                break;
+            case Type.LONG:
+                il.add(new InsnNode(LCONST_0));
+                break;
+            case Type.DOUBLE:
+                il.add(new InsnNode(DCONST_0));
+                break;
+            case Type.VOID:
+                break;
+            default:
+                if (!"java/lang/String".equals(type.getInternalName())
+                    && !"java/lang/CharSequence".equals(type.getInternalName())) {
+                    return null;
+                }
+
+                il.add(new LdcInsnNode(""));
+        }
+
+        return il;
+    }
+
     public static VarInsnNode loadParam(Type type, int var) {
         switch (type.getSort()) {
             case Type.BOOLEAN:
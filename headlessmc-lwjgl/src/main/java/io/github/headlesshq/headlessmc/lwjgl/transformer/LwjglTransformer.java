@@ -1,14 +1,18 @@
 package io.github.headlesshq.headlessmc.lwjgl.transformer;
 
+import io.github.headlesshq.headlessmc.lwjgl.LwjglProperties;
 import io.github.headlesshq.headlessmc.lwjgl.api.Redirection;
 import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionApi;
 import io.github.headlesshq.headlessmc.lwjgl.api.Transformer;
+import io.github.headlesshq.headlessmc.lwjgl.redirections.LwjglRedirections;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Locale;
+import java.util.function.Predicate;
 
 import static org.objectweb.asm.Opcodes.*;
 
@@ -25,8 +29,57 @@ import static org.objectweb.asm.Opcodes.*;
  * will be removed.
  * <p>-All abstract and native methods will be turned into normal methods, with
  * their body transformed as described above.
+ * <p>In invokedynamic mode classes compiled for Java 7 or later call
+ * {@link RedirectionApi#bootstrap} instead, which links every call site once
+ * to its redirection or to a constant default value.
+ * <p>With constant stubs (opt-in), methods without a registered redirection
+ * that would fall back to a primitive, void or String default just return that
+ * constant. Redirections registered after the transformation are ignored for
+ * them, which is why this is disabled by default.
  */
 public class LwjglTransformer implements Transformer {
+    private static final Handle BOOTSTRAP = new Handle(
+        H_INVOKESTATIC, Type.getInternalName(RedirectionApi.class),
+        RedirectionApi.BOOTSTRAP_NAME, RedirectionApi.BOOTSTRAP_DESC, false);
+
+    private final boolean invokeDynamic;
+    private final boolean constantStubs;
+    private final Predicate<String> redirected;
+
+    /**
+     * Used by the agent and the LaunchWrapper, which run inside the game,
+     * so redirections registered by the game before a class gets transformed are respected.
+     */
+    public LwjglTransformer() {
+        this(Boolean.getBoolean(LwjglProperties.INVOKE_DYNAMIC),
+             Boolean.getBoolean(LwjglProperties.CONSTANT_STUBS),
+             desc -> RedirectionApi.getRedirectionManager().isRedirected(desc));
+    }
+
+    /**
+     * Only knows about the built-in redirections of {@link LwjglRedirections}. The RedirectionManager is not
+     * created here, since this constructor is used by the launcher, which never runs the game.
+     *
+     * @param invokeDynamic whether to redirect methods via invokedynamic call sites where the class version allows it.
+     * @param constantStubs whether methods without a registered redirection should return their default value directly.
+     */
+    public LwjglTransformer(boolean invokeDynamic, boolean constantStubs) {
+        this(invokeDynamic, constantStubs, constantStubs
+            ? LwjglRedirections.getRedirectedDescriptors()::contains
+            : desc -> true);
+    }
+
+    /**
+     * @param invokeDynamic whether to redirect methods via invokedynamic call sites where the class version allows it.
+     * @param constantStubs whether methods without a registered redirection should return their default value directly.
+     * @param redirected    tests whether a redirection is registered for a method descriptor.
+     */
+    public LwjglTransformer(boolean invokeDynamic, boolean constantStubs, Predicate<String> redirected) {
+        this.invokeDynamic = invokeDynamic;
+        this.constantStubs = constantStubs;
+        this.redirected = redirected;
+    }
+
     @Override
     public void transform(ClassNode cn) {
         try {
@@ -57,6 +110,20 @@ public class LwjglTransformer implements Transformer {
 
     private Type injectRedirection(ClassNode cn, MethodNode mn, InsnList il) {
         boolean isStatic = Modifier.isStatic(mn.access);
+        if (constantStubs) {
+            Type returnType = Type.getReturnType(mn.desc);
+            InsnList constant = InstructionUtil.loadDefault(returnType);
+            if (constant != null && !redirected.test("L" + cn.name + ";" + mn.name + mn.desc)) {
+                il.add(constant);
+                return returnType;
+            }
+        }
+
+        // invokedynamic requires class files of version 51 (Java 7)
+        if (invokeDynamic && (cn.version & 0xFFFF) >= V1_7) {
+            return injectInvokeDynamic(cn, mn, il, isStatic);
+        }
+
         if (isStatic) {
             il.add(new LdcInsnNode(Type.getType("L" + cn.name + ";")));
         } else {
@@ -76,6 +143,28 @@ public class LwjglTransformer implements Transformer {
         return returnType;
     }
 
+    private Type injectInvokeDynamic(ClassNode cn, MethodNode mn, InsnList il,
+                                     boolean isStatic) {
+        String desc = mn.desc;
+        if (!isStatic) {
+            il.add(new VarInsnNode(ALOAD, 0));
+            desc = "(L" + cn.name + ";" + desc.substring(1);
+        }
+
+        Type[] args = Type.getArgumentTypes(mn.desc);
+        for (int i = 0, v = isStatic ? 0 : 1; i < args.length; i++, v++) {
+            il.add(InstructionUtil.loadParam(args[i], v));
+            if (args[i].getSize() == 2) {
+                v++;
+            }
+        }
+
+        il.add(new InvokeDynamicInsnNode(
+            Redirection.METHOD_NAME, desc, BOOTSTRAP,
+            "L" + cn.name + ";" + mn.name + mn.desc, isStatic ? 1 : 0));
+        return Type.getReturnType(mn.desc);
+    }
+
     private void patchClass(ClassNode cn, boolean isInterface) {
         boolean shouldAddNoArgsCtr = true;
         // TODO: while we can implement all abstract methods which are directly
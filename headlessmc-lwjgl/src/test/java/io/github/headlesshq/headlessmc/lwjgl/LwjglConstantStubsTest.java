@@ -0,0 +1,69 @@
+package io.github.headlesshq.headlessmc.lwjgl;
+
+import io.github.headlesshq.headlessmc.lwjgl.api.Redirection;
+import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionApi;
+import io.github.headlesshq.headlessmc.lwjgl.redirections.DisplayUpdater;
+import io.github.headlesshq.headlessmc.lwjgl.redirections.LwjglRedirections;
+import io.github.headlesshq.headlessmc.lwjgl.transformer.LwjglTransformer;
+import io.github.headlesshq.headlessmc.lwjgl.util.DescriptionUtil;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.LwjglClassLoader;
+import org.lwjgl.LwjglConstantStubs;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LwjglConstantStubsTest {
+    @Test
+    @SneakyThrows
+    public void testConstantStubs() {
+        val descriptor = DescriptionUtil.getDesc(LwjglConstantStubs.class);
+        val manager = RedirectionApi.getRedirectionManager();
+        manager.redirect(descriptor + "redirectedMethod()I", Redirection.of(5));
+
+        val cn = new ClassNode();
+        try (InputStream is = LwjglConstantStubs.class.getResourceAsStream("LwjglConstantStubs.class")) {
+            assertNotNull(is);
+            new ClassReader(is).accept(cn, 0);
+        }
+
+        new LwjglTransformer(false, true, manager::isRedirected).transform(cn);
+        for (MethodNode mn : cn.methods) {
+            boolean invokesApi = false;
+            for (AbstractInsnNode insn : mn.instructions) {
+                invokesApi |= insn instanceof MethodInsnNode
+                    && ((MethodInsnNode) insn).owner.equals("io/github/headlesshq/headlessmc/lwjgl/api/RedirectionApi");
+            }
+
+            // factoryMethod falls back to the ObjectRedirection
+            boolean expected = mn.name.equals("redirectedMethod") || mn.name.equals("factoryMethod");
+            assertEquals(expected, invokesApi, mn.name + mn.desc);
+        }
+
+        val clazz = new LwjglClassLoader(new LwjglTransformer(false, true, manager::isRedirected)).loadClass(LwjglConstantStubs.class.getName());
+        val obj = clazz.getMethod("factoryMethod", String.class).invoke(null, "dummy");
+        assertNotNull(obj);
+        assertEquals(0, clazz.getMethod("intMethod", int.class).invoke(obj, 5));
+        assertEquals('a', clazz.getMethod("charMethod").invoke(obj));
+        assertNull(clazz.getMethod("voidMethod", String.class).invoke(obj, "test"));
+        assertEquals("", clazz.getMethod("charSequenceMethod").invoke(obj));
+        assertEquals(5, clazz.getMethod("redirectedMethod").invoke(obj));
+    }
+
+    @Test
+    public void testRedirectedDescriptors() {
+        val descriptors = LwjglRedirections.getRedirectedDescriptors();
+        assertTrue(descriptors.contains(DisplayUpdater.DESC));
+        assertTrue(descriptors.contains("Lorg/lwjgl/glfw/GLFW;glfwSwapBuffers(J)V"));
+        assertFalse(descriptors.contains(DescriptionUtil.getDesc(LwjglConstantStubs.class) + "redirectedMethod()I"));
+    }
+
+}
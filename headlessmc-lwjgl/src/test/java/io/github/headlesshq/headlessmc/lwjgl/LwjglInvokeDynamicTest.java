@@ -0,0 +1,83 @@
+package io.github.headlesshq.headlessmc.lwjgl;
+
+import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionApi;
+import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionManager;
+import io.github.headlesshq.headlessmc.lwjgl.transformer.LwjglTransformer;
+import io.github.headlesshq.headlessmc.lwjgl.util.DescriptionUtil;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.LwjglClassLoader;
+import org.lwjgl.LwjglInvokeDynamic;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LwjglInvokeDynamicTest {
+    private static final RedirectionManager MANAGER =
+        RedirectionApi.getRedirectionManager();
+
+    @Test
+    @SneakyThrows
+    public void testInvokeDynamicIsEmitted() {
+        val cn = new ClassNode();
+        try (InputStream is = LwjglInvokeDynamic.class.getResourceAsStream("LwjglInvokeDynamic.class")) {
+            assertNotNull(is);
+            new ClassReader(is).accept(cn, 0);
+        }
+
+        new LwjglTransformer(true, false).transform(cn);
+        for (MethodNode mn : cn.methods) {
+            boolean found = false;
+            for (AbstractInsnNode insn : mn.instructions) {
+                found |= insn instanceof InvokeDynamicInsnNode;
+            }
+
+            assertTrue(found, mn.name + mn.desc);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testInvokeDynamicRedirections() {
+        val clazz = new LwjglClassLoader(new LwjglTransformer(true, false)).loadClass(LwjglInvokeDynamic.class.getName());
+        val obj = clazz.getMethod("factoryMethod", String.class).invoke(null, "dummy");
+        assertNotNull(obj);
+        assertInstanceOf(clazz, obj);
+
+        val intMethod = clazz.getMethod("intMethod", int.class);
+        val staticLongMethod = clazz.getMethod("staticLongMethod", long.class, double.class, String.class);
+        // constant defaults
+        assertEquals(0, intMethod.invoke(obj, 5));
+        assertEquals(0L, staticLongMethod.invoke(null, 5L, 1.0, "test"));
+        assertEquals(false, clazz.getMethod("booleanMethod").invoke(obj));
+        assertEquals("", clazz.getMethod("stringMethod").invoke(obj));
+        assertNull(clazz.getMethod("voidMethod", String.class).invoke(obj, "test"));
+        assertNotNull(clazz.getMethod("objectMethod").invoke(obj));
+
+        // redirections registered after the call sites have been linked
+        val descriptor = DescriptionUtil.getDesc(clazz);
+        MANAGER.redirect(descriptor + "intMethod(I)I", (object, desc, type, args) -> {
+            assertSame(obj, object);
+            assertEquals(int.class, type);
+            return (Integer) args[0] + 1;
+        });
+
+        MANAGER.redirect(descriptor + "staticLongMethod(JDLjava/lang/String;)J", (object, desc, type, args) -> {
+            assertSame(clazz, object);
+            assertEquals(3, args.length);
+            assertEquals("test", args[2]);
+            return (Long) args[0] * 2;
+        });
+
+        assertEquals(6, intMethod.invoke(obj, 5));
+        assertEquals(10L, staticLongMethod.invoke(null, 5L, 1.0, "test"));
+    }
+
+}
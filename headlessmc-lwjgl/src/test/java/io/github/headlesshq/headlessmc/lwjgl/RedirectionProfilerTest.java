@@ -0,0 +1,62 @@
+package io.github.headlesshq.headlessmc.lwjgl;
+
+import io.github.headlesshq.headlessmc.lwjgl.api.Redirection;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RedirectionProfilerTest {
+    private static final String DESC = "Lorg/lwjgl/Test;test(I)I";
+    private static final String FALLBACK_DESC = "Lorg/lwjgl/Test;fallback()I";
+
+    @Test
+    public void testInvoke() throws Throwable {
+        RedirectionProfiler profiler = new RedirectionProfiler(true, 1);
+        Redirection redirection = (obj, desc, type, args) -> (int) args[0] + 1;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1, profiler.invoke(redirection, false, null, DESC, int.class, i));
+        }
+
+        assertEquals(3, profiler.wrap(redirection, true).invoke(null, FALLBACK_DESC, int.class, 2));
+        assertEquals(10, profiler.getCalls(DESC));
+        assertEquals(0, profiler.getFallbacks(DESC));
+        assertEquals(1, profiler.getCalls(FALLBACK_DESC));
+        assertEquals(1, profiler.getFallbacks(FALLBACK_DESC));
+
+        String report = profiler.getReport(1);
+        assertTrue(report.contains(DESC), report);
+        assertFalse(report.contains(FALLBACK_DESC), report);
+
+        profiler.reset();
+        assertEquals(0, profiler.getCalls(DESC));
+    }
+
+    @Test
+    public void testException() {
+        RedirectionProfiler profiler = new RedirectionProfiler(true, 1);
+        assertThrows(IllegalStateException.class, () -> profiler.invoke((obj, desc, type, args) -> {
+            throw new IllegalStateException();
+        }, false, null, DESC, int.class));
+        assertEquals(1, profiler.getCalls(DESC));
+    }
+
+    @Test
+    public void testManager() throws Throwable {
+        RedirectionProfiler profiler = new RedirectionProfiler(true, 2);
+        RedirectionManagerImpl manager = new RedirectionManagerImpl(profiler);
+        manager.redirect(DESC, (obj, desc, type, args) -> 5);
+        assertEquals(5, manager.invoke(null, DESC, int.class, 1));
+        assertEquals(0, manager.invoke(null, FALLBACK_DESC, int.class));
+
+        MethodHandle handle = manager.link(RedirectionProfilerTest.class, FALLBACK_DESC, MethodType.methodType(int.class), true);
+        assertEquals(0, (int) handle.invokeExact());
+        assertEquals(1, profiler.getCalls(DESC));
+        assertEquals(0, profiler.getFallbacks(DESC));
+        assertEquals(2, profiler.getCalls(FALLBACK_DESC));
+        assertEquals(2, profiler.getFallbacks(FALLBACK_DESC));
+    }
+
+}
@@ -0,0 +1,110 @@
+package io.github.headlesshq.headlessmc.lwjgl.redirections;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferAllocatorTest {
+    @Test
+    public void testSizeClass() {
+        assertEquals(BufferAllocator.MIN_SHIFT, BufferAllocator.sizeClass(0));
+        assertEquals(BufferAllocator.MIN_SHIFT, BufferAllocator.sizeClass(16));
+        assertEquals(5, BufferAllocator.sizeClass(17));
+        assertEquals(10, BufferAllocator.sizeClass(1024));
+        assertEquals(11, BufferAllocator.sizeClass(1025));
+    }
+
+    @Test
+    public void testAllocateAndFree() {
+        BufferAllocator allocator = new BufferAllocator(true);
+        ByteBuffer buffer = allocator.allocate(100);
+        assertEquals(100, buffer.capacity());
+        assertEquals(0, buffer.position());
+        assertEquals(128, buffer.array().length);
+        buffer.put(0, (byte) 5);
+        allocator.free(buffer);
+
+        ByteBuffer reused = allocator.allocate(120);
+        assertSame(buffer.array(), reused.array());
+        assertEquals(120, reused.capacity());
+        assertEquals(0, reused.get(0));
+
+        // a buffer freed twice must not be handed out twice
+        allocator.free(reused);
+        allocator.free(reused);
+        assertNotSame(allocator.allocate(128).array(), allocator.allocate(128).array());
+
+        IntBuffer ints = allocator.allocateInt(3);
+        assertEquals(3, ints.capacity());
+        allocator.free(ints);
+        assertSame(ints.array(), allocator.allocateInt(16).array());
+        assertTrue(allocator.getStatistics().contains("int: allocations=2, reused=1, freed=1, elements=19"));
+    }
+
+    @Test
+    public void testMaxRetainedBytes() {
+        BufferAllocator allocator = new BufferAllocator(true, 1536);
+        LongBuffer first = allocator.allocateLong(128);
+        LongBuffer second = allocator.allocateLong(128);
+        allocator.free(first);
+        assertEquals(1024, allocator.getRetainedBytes());
+        allocator.free(second);
+        // 2048 bytes would exceed the limit
+        assertEquals(1024, allocator.getRetainedBytes());
+        assertSame(first.array(), allocator.allocateLong(128).array());
+        assertEquals(0, allocator.getRetainedBytes());
+    }
+
+    @Test
+    public void testFreeOnOtherThread() throws InterruptedException {
+        BufferAllocator allocator = new BufferAllocator(true);
+        ByteBuffer buffer = allocator.allocate(64);
+        allocator.free(buffer);
+        Thread thread = new Thread(() -> allocator.free(buffer));
+        thread.start();
+        thread.join();
+
+        assertEquals(64, allocator.getRetainedBytes());
+        assertSame(buffer.array(), allocator.allocate(64).array());
+        assertNotSame(buffer.array(), allocator.allocate(64).array());
+    }
+
+    @Test
+    public void testWithoutPooling() {
+        BufferAllocator allocator = new BufferAllocator(false);
+        ByteBuffer buffer = allocator.allocate(100);
+        assertEquals(100, buffer.array().length);
+        allocator.free(buffer);
+        assertNotSame(buffer.array(), allocator.allocate(100).array());
+    }
+
+    @Test
+    public void testRealloc() {
+        BufferAllocator allocator = new BufferAllocator(true);
+        ByteBuffer buffer = allocator.allocate(20);
+        buffer.put((byte) 1).put((byte) 2);
+        ByteBuffer inPlace = allocator.realloc(buffer, 30);
+        assertSame(buffer.array(), inPlace.array());
+        assertEquals(30, inPlace.capacity());
+        assertEquals(2, inPlace.position());
+        assertEquals(2, inPlace.get(1));
+
+        ByteBuffer grown = allocator.realloc(inPlace, 100);
+        assertNotSame(inPlace.array(), grown.array());
+        assertEquals(100, grown.capacity());
+        assertEquals(2, grown.position());
+        assertEquals(1, grown.get(0));
+        assertEquals(2, grown.get(1));
+        assertEquals(0, grown.get(29));
+
+        ByteBuffer shrunk = allocator.realloc(grown, 1);
+        assertEquals(1, shrunk.capacity());
+        assertEquals(1, shrunk.position());
+        assertEquals(10, allocator.realloc(null, 10).capacity());
+    }
+
+}
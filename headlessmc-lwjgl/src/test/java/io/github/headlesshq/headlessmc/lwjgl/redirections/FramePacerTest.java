@@ -0,0 +1,112 @@
+package io.github.headlesshq.headlessmc.lwjgl.redirections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FramePacerTest {
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long IDLE_PERIOD = TimeUnit.MILLISECONDS.toNanos(60);
+
+    @Test
+    public void testFrame() throws InterruptedException {
+        FramePacer pacer = new FramePacer(PERIOD, IDLE_PERIOD);
+        pacer.frame();
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            pacer.frame();
+        }
+
+        assertTrue(System.nanoTime() - start >= 4 * PERIOD);
+        assertEquals(6, pacer.getFrames());
+    }
+
+    @Test
+    public void testFrameWorkIsNotSleptAgain() throws InterruptedException {
+        FramePacer pacer = new FramePacer(PERIOD, IDLE_PERIOD);
+        pacer.frame();
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(PERIOD * 2));
+        long start = System.nanoTime();
+        pacer.frame();
+        assertTrue(System.nanoTime() - start < PERIOD);
+    }
+
+    @Test
+    public void testPoll() throws InterruptedException {
+        FramePacer pacer = new FramePacer(PERIOD, IDLE_PERIOD);
+        pacer.frame();
+        // the game is swapping buffers, polling does not wait
+        pacer.poll();
+        pacer.poll();
+        assertEquals(1, pacer.getFrames());
+
+        // the game only polls without swapping buffers, nothing needs rendering, so the idle period is used
+        long start = System.nanoTime();
+        while (pacer.getFrames() < 4) {
+            pacer.poll();
+        }
+
+        assertTrue(System.nanoTime() - start >= 2 * IDLE_PERIOD);
+    }
+
+    @Test
+    public void testIconified() throws InterruptedException {
+        FramePacer pacer = new FramePacer(PERIOD, IDLE_PERIOD);
+        pacer.setIconified(true);
+        assertTrue(pacer.isIdle());
+        assertEquals(IDLE_PERIOD, pacer.getPeriodNanos());
+        pacer.frame();
+        long start = System.nanoTime();
+        pacer.frame();
+        pacer.frame();
+        assertTrue(System.nanoTime() - start >= 2 * IDLE_PERIOD - PERIOD);
+
+        pacer.setIconified(false);
+        assertFalse(pacer.isIdle());
+        assertEquals(PERIOD, pacer.getPeriodNanos());
+    }
+
+    @Test
+    public void testForcedIdle() throws InterruptedException {
+        FramePacer pacer = new FramePacer(PERIOD, IDLE_PERIOD);
+        pacer.setForcedIdle(true);
+        assertTrue(pacer.isIdle());
+        pacer.frame();
+        long start = System.nanoTime();
+        pacer.frame();
+        pacer.frame();
+        assertTrue(System.nanoTime() - start >= 2 * IDLE_PERIOD - PERIOD);
+
+        pacer.setForcedIdle(false);
+        assertEquals(PERIOD, pacer.getPeriodNanos());
+    }
+
+    @Test
+    public void testInterrupt() throws InterruptedException {
+        FramePacer pacer = new FramePacer(PERIOD, IDLE_PERIOD);
+        pacer.frame();
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, pacer::frame);
+        assertFalse(Thread.currentThread().isInterrupted());
+
+        // the flag has been cleared, so the next frame waits again
+        long start = System.nanoTime();
+        pacer.frame();
+        assertTrue(System.nanoTime() - start >= PERIOD / 2);
+    }
+
+    @Test
+    public void testStatistics() throws InterruptedException {
+        FramePacer pacer = new FramePacer(TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.SECONDS.toNanos(1));
+        for (int i = 0; i < 12; i++) {
+            pacer.frame();
+        }
+
+        assertTrue(pacer.getFps() > 0.0 && pacer.getFps() <= 12.0, String.valueOf(pacer.getFps()));
+        assertTrue(pacer.getWorkNanosPerFrame() >= 0L);
+        assertTrue(pacer.getStatistics().startsWith("HeadlessMc frames: frames=12"), pacer.getStatistics());
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.headlesshq.headlessmc.lwjgl.redirections;
+
+import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionApi;
+import io.github.headlesshq.headlessmc.lwjgl.api.RedirectionManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectRedirectionTest {
+    private static final RedirectionManager MANAGER = RedirectionApi.getRedirectionManager();
+
+    @Test
+    public void testProxySingleton() throws Throwable {
+        ObjectRedirection redirection = new ObjectRedirection(MANAGER, true);
+        Object proxy = redirection.invoke(null, "desc", Runnable.class);
+        assertInstanceOf(Runnable.class, proxy);
+        assertSame(proxy, redirection.invoke(null, "desc", Runnable.class));
+        ((Runnable) proxy).run();
+        assertEquals(proxy, proxy);
+        assertEquals(System.identityHashCode(proxy), proxy.hashCode());
+    }
+
+    @Test
+    public void testProxyInstances() throws Throwable {
+        ObjectRedirection redirection = new ObjectRedirection(MANAGER, false);
+        Object proxy = redirection.invoke(null, "desc", Runnable.class);
+        Object other = redirection.invoke(null, "desc", Runnable.class);
+        assertInstanceOf(Runnable.class, proxy);
+        assertNotSame(proxy, other);
+        assertSame(proxy.getClass(), other.getClass());
+        assertNotEquals(proxy, other);
+    }
+
+    @Test
+    public void testProxyRedirected() throws Throwable {
+        int[] calls = new int[1];
+        MANAGER.redirect("Ljava/util/function/IntSupplier;getAsInt()I", (obj, desc, type, args) -> {
+            assertSame(obj, args[0]);
+            assertSame(int.class, type);
+            return ++calls[0];
+        });
+
+        IntSupplier supplier = (IntSupplier)
+            new ObjectRedirection(MANAGER).invoke(null, "desc", IntSupplier.class);
+        assertEquals(1, supplier.getAsInt());
+        assertEquals(2, supplier.getAsInt());
+    }
+
+    @Test
+    public void testConstructor() throws Throwable {
+        ObjectRedirection redirection = new ObjectRedirection(MANAGER);
+        Object first = redirection.invoke(null, "desc", ArrayList.class);
+        Object second = redirection.invoke(null, "desc", ArrayList.class);
+        assertEquals(new ArrayList<>(), first);
+        assertNotSame(first, second);
+        assertInstanceOf(PrivateConstructor.class, redirection.invoke(null, "desc", PrivateConstructor.class));
+        assertNull(redirection.invoke(null, "desc", Integer.class));
+        assertNull(redirection.invoke(null, "desc", Number.class));
+    }
+
+    @Test
+    public void testArray() throws Throwable {
+        ObjectRedirection redirection = new ObjectRedirection(MANAGER);
+        int[][] array = (int[][]) redirection.invoke(null, "desc", int[][].class);
+        assertEquals(0, array.length);
+        assertEquals(0, ((String[]) redirection.invoke(null, "desc", String[].class)).length);
+    }
+
+    private static final class PrivateConstructor {
+        private PrivateConstructor() {
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.github.headlesshq.headlessmc.lwjgl.redirections.stb;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageHeaderTest {
+    @Test
+    public void testPng() throws IOException {
+        ByteBuffer buffer = write(new BufferedImage(37, 21, BufferedImage.TYPE_INT_ARGB), "png");
+        assertEquals(new ImageHeader(37, 21, 4), ImageHeader.read(buffer));
+        assertEquals(0, buffer.position());
+
+        buffer = write(new BufferedImage(5, 300, BufferedImage.TYPE_INT_RGB), "png");
+        assertEquals(new ImageHeader(5, 300, 3), ImageHeader.read(buffer.order(ByteOrder.LITTLE_ENDIAN)));
+
+        buffer = write(new BufferedImage(16, 16, BufferedImage.TYPE_BYTE_GRAY), "png");
+        assertEquals(new ImageHeader(16, 16, 1), ImageHeader.read(buffer));
+    }
+
+    @Test
+    public void testJpeg() throws IOException {
+        ByteBuffer buffer = write(new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB), "jpg");
+        assertEquals(new ImageHeader(640, 480, 3), ImageHeader.read(buffer));
+    }
+
+    @Test
+    public void testPosition() throws IOException {
+        ByteBuffer image = write(new BufferedImage(3, 4, BufferedImage.TYPE_INT_ARGB), "png");
+        ByteBuffer buffer = ByteBuffer.allocate(image.remaining() + 10);
+        buffer.position(10);
+        buffer.put(image);
+        buffer.position(10);
+        assertEquals(new ImageHeader(3, 4, 4), ImageHeader.read(buffer));
+        assertEquals(10, buffer.position());
+    }
+
+    @Test
+    public void testUnknownFormat() throws IOException {
+        assertNull(ImageHeader.read(write(new BufferedImage(3, 4, BufferedImage.TYPE_INT_RGB), "bmp")));
+        assertNull(ImageHeader.read(ByteBuffer.wrap(new byte[]{(byte) 0x89, 'P', 'N', 'G'})));
+        assertNull(ImageHeader.read(ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF})));
+        assertNull(ImageHeader.read(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    public void testPixels() {
+        ByteBuffer pixels = STBImage.pixels(new ImageHeader(16, 16, 3), 4);
+        assertEquals(16 * 16 * 4, pixels.remaining());
+        assertFalse(pixels.isReadOnly());
+        pixels.put(100, (byte) 1);
+
+        ByteBuffer large = STBImage.pixels(new ImageHeader(1024, 1024, 4), 0);
+        assertEquals(1024 * 1024 * 4, large.remaining());
+        assertFalse(large.isReadOnly());
+        large.put(large.limit() - 1, (byte) 1);
+    }
+
+    private static ByteBuffer write(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(image, format, os));
+        return ByteBuffer.wrap(os.toByteArray());
+    }
+
+}
@@ -27,6 +27,19 @@ public class InstructionUtilTest extends AbstractUtilityTest<InstructionUtil> {
         assertEquals(LDC, insnNode.getOpcode());
     }
 
+    @Test
+    @DisplayName("Test for loadDefault()")
+    public void testLoadDefault() {
+        assertEquals(ICONST_0, InstructionUtil.loadDefault(Type.INT_TYPE).getFirst().getOpcode());
+        assertEquals(LCONST_0, InstructionUtil.loadDefault(Type.LONG_TYPE).getFirst().getOpcode());
+        assertEquals(0, InstructionUtil.loadDefault(Type.VOID_TYPE).size());
+        InsnList string = InstructionUtil.loadDefault(Type.getType(String.class));
+        assertNotNull(string);
+        assertEquals("", ((LdcInsnNode) string.getFirst()).cst);
+        assertNull(InstructionUtil.loadDefault(Type.getType(Object.class)));
+        assertNull(InstructionUtil.loadDefault(Type.getType(int[].class)));
+    }
+
     @Test
     @DisplayName("Test for box() with primitive types")
     public void testBoxWithPrimitiveTypes() {
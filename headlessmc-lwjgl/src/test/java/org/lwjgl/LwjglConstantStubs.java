@@ -0,0 +1,34 @@
+package org.lwjgl;
+
+import io.github.headlesshq.headlessmc.lwjgl.LwjglConstantStubsTest;
+
+/**
+ * {@link LwjglConstantStubsTest}
+ */
+@SuppressWarnings("unused")
+public class LwjglConstantStubs {
+    public static LwjglConstantStubs factoryMethod(String dontCall) {
+        return null;
+    }
+
+    public int intMethod(int i) {
+        return i;
+    }
+
+    public char charMethod() {
+        return 'b';
+    }
+
+    public void voidMethod(String s) {
+        throw new IllegalStateException("Should not be called!");
+    }
+
+    public CharSequence charSequenceMethod() {
+        return null;
+    }
+
+    public int redirectedMethod() {
+        return 0;
+    }
+
+}
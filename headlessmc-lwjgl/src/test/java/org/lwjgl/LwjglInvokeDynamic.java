@@ -0,0 +1,38 @@
+package org.lwjgl;
+
+import io.github.headlesshq.headlessmc.lwjgl.LwjglInvokeDynamicTest;
+
+/**
+ * {@link LwjglInvokeDynamicTest}
+ */
+@SuppressWarnings("unused")
+public class LwjglInvokeDynamic {
+    public static LwjglInvokeDynamic factoryMethod(String dontCall) {
+        return null;
+    }
+
+    public static long staticLongMethod(long l, double d, String s) {
+        return l;
+    }
+
+    public int intMethod(int i) {
+        return i;
+    }
+
+    public boolean booleanMethod() {
+        return true;
+    }
+
+    public void voidMethod(String s) {
+        throw new IllegalStateException("Should not be called!");
+    }
+
+    public String stringMethod() {
+        return null;
+    }
+
+    public Object objectMethod() {
+        return null;
+    }
+
+}